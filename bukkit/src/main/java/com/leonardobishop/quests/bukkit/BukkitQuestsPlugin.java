@@ -22,12 +22,15 @@ import com.leonardobishop.quests.bukkit.item.QuestItem;
 import com.leonardobishop.quests.bukkit.item.QuestItemRegistry;
 import com.leonardobishop.quests.bukkit.listener.PlayerJoinListener;
 import com.leonardobishop.quests.bukkit.listener.PlayerLeaveListener;
+import com.leonardobishop.quests.bukkit.listener.PlayerPreLoginListener;
 import com.leonardobishop.quests.bukkit.menu.MenuController;
 import com.leonardobishop.quests.bukkit.menu.itemstack.QItemStackRegistry;
 import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
 import com.leonardobishop.quests.bukkit.questcontroller.NormalQuestController;
 import com.leonardobishop.quests.bukkit.runnable.QuestsAutoSaveRunnable;
+import com.leonardobishop.quests.bukkit.storage.BinaryStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.MySqlStorageProvider;
+import com.leonardobishop.quests.bukkit.storage.SqliteStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.YamlStorageProvider;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskTypeManager;
 import com.leonardobishop.quests.bukkit.tasktype.type.*;
@@ -43,6 +46,7 @@ import com.leonardobishop.quests.common.quest.QuestCompleter;
 import com.leonardobishop.quests.common.quest.QuestManager;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
 import com.leonardobishop.quests.common.scheduler.ServerScheduler;
+import com.leonardobishop.quests.common.storage.PluginStorageContext;
 import com.leonardobishop.quests.common.storage.StorageProvider;
 import com.leonardobishop.quests.common.tasktype.TaskType;
 import com.leonardobishop.quests.common.tasktype.TaskTypeManager;
@@ -63,6 +67,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
 public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
@@ -91,7 +97,6 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
     private Title titleHandle;
 
     private BukkitTask questAutoSaveTask;
-    private BukkitTask questQueuePollTask;
     private BiFunction<Player, String, String> placeholderAPIProcessor;
 
     @Override
@@ -162,14 +167,10 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
 
         // Initialise storage provider
         String configuredProvider = questsConfig.getString("options.storage.provider", "yaml");
-        switch (configuredProvider.toLowerCase()) {
-            default:
-                questsLogger.warning("No valid storage provider is configured - Quests will use YAML storage as a default");
-            case "yaml":
-                this.storageProvider = new YamlStorageProvider(this);
-                break;
-            case "mysql":
-                this.storageProvider = new MySqlStorageProvider(this, this.getConfig().getConfigurationSection("options.storage.database-settings"));
+        this.storageProvider = createStorageProvider(configuredProvider);
+        if (storageProvider == null) {
+            questsLogger.warning("No valid storage provider is configured - Quests will use YAML storage as a default");
+            this.storageProvider = new YamlStorageProvider(this);
         }
 
         try {
@@ -209,7 +210,10 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
 
         // Finish module initialisation
         this.taskTypeManager = new BukkitTaskTypeManager(this, questsConfig.getStringList("options.task-type-exclusions"));
-        this.qPlayerManager = new QPlayerManager(this, storageProvider, questController);
+        int saveParallelism = Math.max(1, questsConfig.getInt("options.storage.saving.parallelism", 2));
+        int offlineCacheSize = questsConfig.getInt("options.storage.offline-player-cache.size", 200);
+        int offlineCacheExpiry = questsConfig.getInt("options.storage.offline-player-cache.expiry", 300);
+        this.qPlayerManager = new QPlayerManager(this, storageProvider, questController, saveParallelism, offlineCacheSize, offlineCacheExpiry);
         this.menuController = new MenuController(this);
         this.questItemRegistry = new QuestItemRegistry();
         this.qItemStackRegistry = new QItemStackRegistry();
@@ -240,6 +244,7 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         super.getCommand("quests").setExecutor(questsCommandSwitcher);
 
         // Register events
+        super.getServer().getPluginManager().registerEvents(new PlayerPreLoginListener(this), this);
         super.getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
         super.getServer().getPluginManager().registerEvents(menuController, this);
         super.getServer().getPluginManager().registerEvents(new PlayerLeaveListener(this), this);
@@ -352,9 +357,11 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             reloadQuests();
 
             // Load players who were present during startup (i.e some idiot reloaded the server instead of restarted)
+            List<UUID> onlinePlayers = new ArrayList<>();
             for (Player player : Bukkit.getOnlinePlayers()) {
-                qPlayerManager.loadPlayer(player.getUniqueId());
+                onlinePlayers.add(player.getUniqueId());
             }
+            qPlayerManager.loadPlayers(onlinePlayers);
         });
     }
 
@@ -369,9 +376,18 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         }
         for (QPlayer qPlayer : qPlayerManager.getQPlayers()) {
             try {
-                qPlayerManager.savePlayerSync(qPlayer.getPlayerUUID());
+                qPlayerManager.savePlayer(qPlayer.getPlayerUUID());
             } catch (Exception ignored) { }
         }
+        try {
+            long timeout = questsConfig.getInt("options.storage.saving.shutdown-timeout", 30);
+            if (!qPlayerManager.getSaveQueue().flush(timeout, TimeUnit.SECONDS)) {
+                questsLogger.severe("Timed out waiting for " + qPlayerManager.getSaveQueue().getQueueDepth() + " player(s) to save!");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        qPlayerManager.getSaveQueue().shutdown();
         if (placeholderAPIHook != null) {
             try {
                 placeholderAPIHook.unregisterExpansion();
@@ -392,6 +408,10 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             questsLoader.loadQuestItems(new File(super.getDataFolder() + File.separator + "items"));
             configProblems = questsLoader.loadQuests(new File(super.getDataFolder() + File.separator + "quests"));
 
+            for (QPlayer qPlayer : qPlayerManager.getQPlayers()) {
+                qPlayer.getActiveTaskIndex().invalidate();
+            }
+
             for (TaskType taskType : taskTypeManager.getTaskTypes()) {
                 try {
                     taskType.onReady();
@@ -435,17 +455,16 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             long autoSaveInterval = this.getConfig().getLong("options.performance-tweaking.quest-autosave-interval", 12000);
             try {
                 if (questAutoSaveTask != null) questAutoSaveTask.cancel();
-                questAutoSaveTask = Bukkit.getScheduler().runTaskTimer(this, () -> new QuestsAutoSaveRunnable(this), autoSaveInterval, autoSaveInterval);
+                questAutoSaveTask = Bukkit.getScheduler().runTaskTimer(this, new QuestsAutoSaveRunnable(this, autoSaveInterval), autoSaveInterval, 1L);
             } catch (Exception ex) {
                 questsLogger.debug("Cannot cancel and restart quest autosave task");
             }
 
             long queueExecuteInterval = this.getConfig().getLong("options.performance-tweaking.quest-queue-executor-interval", 1);
-            try {
-                if (questQueuePollTask != null) questQueuePollTask.cancel();
-                questQueuePollTask = Bukkit.getScheduler().runTaskTimer(this, (BukkitQuestCompleter) questCompleter, queueExecuteInterval, queueExecuteInterval);
-            } catch (Exception ex) {
-                questsLogger.debug("Cannot cancel and restart queue executor task");
+            long queueExecuteBudget = this.getConfig().getLong("options.performance-tweaking.quest-queue-executor-budget", 1000);
+            if (questCompleter != null) {
+                ((BukkitQuestCompleter) questCompleter).setDelay(queueExecuteInterval);
+                ((BukkitQuestCompleter) questCompleter).setTimeBudget(queueExecuteBudget, TimeUnit.MICROSECONDS);
             }
         }
         return validConfiguration;
@@ -511,6 +530,29 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         }
     }
 
+    /**
+     * Create a storage provider as configured under options.storage, without initialising it.
+     *
+     * @param provider the name of the provider, such as 'yaml' or 'mysql'
+     * @return the storage provider, or null if there is no provider by that name
+     */
+    public @Nullable StorageProvider createStorageProvider(String provider) {
+        switch (provider.toLowerCase()) {
+            case "yaml":
+                return new YamlStorageProvider(this);
+            case "binary":
+                return new BinaryStorageProvider(this,
+                        questsConfig.getBoolean("options.storage.binary-settings.journal", false),
+                        questsConfig.getInt("options.storage.binary-settings.compact-journal-at", 65536));
+            case "sqlite":
+                return new SqliteStorageProvider(this);
+            case "mysql":
+                return new MySqlStorageProvider(new PluginStorageContext(this), this.getConfig().getConfigurationSection("options.storage.database-settings"));
+            default:
+                return null;
+        }
+    }
+
     public boolean isValidConfiguration() {
         return validConfiguration;
     }
@@ -21,6 +21,8 @@ public class AdminCommandSwitcher extends CommandSwitcher {
         super.subcommands.put("items", new AdminItemsCommandHandler(plugin));
         super.subcommands.put("config", new AdminConfigCommandHandler(plugin));
         super.subcommands.put("update", new AdminUpdateCommandHandler(plugin));
+        super.subcommands.put("migrateschema", new AdminMigrateschemaCommandHandler(plugin));
+        super.subcommands.put("migratedata", new AdminMigratedataCommandHandler(plugin));
         super.subcommands.put("wiki", new AdminWikiCommandHandler(plugin));
         super.subcommands.put("about", new AdminAboutCommandHandler(plugin));
     }
@@ -38,6 +40,8 @@ public class AdminCommandSwitcher extends CommandSwitcher {
         sender.sendMessage(ChatColor.DARK_GRAY + " * " + ChatColor.RED + "/quests a reload " + ChatColor.DARK_GRAY + ": reload Quests configuration");
         sender.sendMessage(ChatColor.DARK_GRAY + " * " + ChatColor.RED + "/quests a config " + ChatColor.DARK_GRAY + ": see detected problems in config");
         sender.sendMessage(ChatColor.DARK_GRAY + " * " + ChatColor.RED + "/quests a update " + ChatColor.DARK_GRAY + ": check for updates");
+        sender.sendMessage(ChatColor.DARK_GRAY + " * " + ChatColor.RED + "/quests a migrateschema " + ChatColor.DARK_GRAY + ": migrate MySQL storage to the compact schema");
+        sender.sendMessage(ChatColor.DARK_GRAY + " * " + ChatColor.RED + "/quests a migratedata <from> <to> " + ChatColor.DARK_GRAY + ": copy players between storage providers");
         sender.sendMessage(ChatColor.DARK_GRAY + " * " + ChatColor.RED + "/quests a wiki " + ChatColor.DARK_GRAY + ": get a link to the Quests wiki");
         sender.sendMessage(ChatColor.DARK_GRAY + " * " + ChatColor.RED + "/quests a about " + ChatColor.DARK_GRAY + ": get information about Quests");
     }
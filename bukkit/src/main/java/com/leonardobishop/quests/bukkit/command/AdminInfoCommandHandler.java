@@ -34,6 +34,10 @@ public class AdminInfoCommandHandler implements CommandHandler {
                 }
             }
             sender.sendMessage(ChatColor.GRAY + "Quest controller: " + ChatColor.RED + plugin.getQuestController().getName());
+            String storageStatistics = plugin.getStorageProvider().getStatistics();
+            if (storageStatistics != null) {
+                sender.sendMessage(ChatColor.GRAY + "Storage: " + ChatColor.RED + storageStatistics);
+            }
             sender.sendMessage(ChatColor.GRAY.toString() + plugin.getQuestManager().getQuests().size() + " registered.");
             sender.sendMessage(ChatColor.DARK_GRAY + "View info using /q a info [quest].");
         } else {
@@ -0,0 +1,136 @@
+package com.leonardobishop.quests.bukkit.command;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.storage.StorageMigration;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AdminMigratedataCommandHandler implements CommandHandler {
+
+    private static final List<String> PROVIDERS = Arrays.asList("yaml", "binary", "sqlite", "mysql");
+    private static final int BATCH_SIZE = 250;
+
+    private final BukkitQuestsPlugin plugin;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AdminMigratedataCommandHandler(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void handle(CommandSender sender, String[] args) {
+        if (args.length < 4) {
+            sender.sendMessage(ChatColor.RED + "/quests a migratedata <from> <to> [confirm]");
+            return;
+        }
+        String from = args[2].toLowerCase();
+        String to = args[3].toLowerCase();
+        if (!PROVIDERS.contains(from) || !PROVIDERS.contains(to)) {
+            sender.sendMessage(ChatColor.RED + "Storage providers must be one of: " + String.join(", ", PROVIDERS) + ".");
+            return;
+        }
+        if (from.equals(to)) {
+            sender.sendMessage(ChatColor.RED + "Players cannot be copied to the same storage provider.");
+            return;
+        }
+        if (args.length < 5 || !args[4].equalsIgnoreCase("confirm")) {
+            sender.sendMessage(ChatColor.GRAY + "This will copy every player from " + ChatColor.RED + from + ChatColor.GRAY + " to "
+                    + ChatColor.RED + to + ChatColor.GRAY + ", overwriting any progress they already have there. " +
+                    "Progress saved after a player has been copied is not included, so this is best run with no players online.");
+            sender.sendMessage(ChatColor.GRAY + "Type " + ChatColor.RED + "/quests a migratedata " + from + " " + to + " confirm" + ChatColor.GRAY + " to begin.");
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.RED + "A migration is already running.");
+            return;
+        }
+
+        // progress of online players is saved first, so that it is included
+        for (QPlayer qPlayer : plugin.getPlayerManager().getQPlayers()) {
+            plugin.getPlayerManager().savePlayer(qPlayer.getPlayerUUID());
+        }
+
+        sender.sendMessage(ChatColor.GRAY + "Copying players from " + from + " to " + to + "...");
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> {
+            StorageProvider source = null;
+            StorageProvider target = null;
+            try {
+                if (!plugin.getPlayerManager().getSaveQueue().flush(30, TimeUnit.SECONDS)) {
+                    sender.sendMessage(ChatColor.RED + "Timed out waiting for queued saves to be written, please try again.");
+                    return;
+                }
+
+                source = getStorageProvider(from);
+                target = getStorageProvider(to);
+                int parallelism = Math.max(1, plugin.getQuestsConfig().getInt("options.storage.saving.parallelism", 2));
+                File checkpointFile = new File(plugin.getDataFolder(), "migration-" + from + "-" + to + ".checkpoint");
+
+                StorageMigration migration = new StorageMigration(plugin.getQuestsLogger(), source, target, BATCH_SIZE, parallelism, checkpointFile);
+                if (migration.migrate(message -> sender.sendMessage(ChatColor.GRAY + message))) {
+                    sender.sendMessage(ChatColor.GREEN + "Players have been copied to " + to + ". Set 'provider: \"" + to + "\"' in the storage options before restarting.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                plugin.getQuestsLogger().severe("Failed to copy players from " + from + " to " + to + "!");
+                e.printStackTrace();
+                sender.sendMessage(ChatColor.RED + "Migration failed, see the console for details.");
+            } finally {
+                shutdownIfUnused(source);
+                shutdownIfUnused(target);
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Use the active storage provider where possible, so that its players are not read and written by
+     * two providers at once.
+     */
+    private StorageProvider getStorageProvider(String name) {
+        String configuredProvider = plugin.getQuestsConfig().getString("options.storage.provider", "yaml");
+        if (name.equalsIgnoreCase(configuredProvider)) {
+            return plugin.getPlayerManager().getStorageProvider();
+        }
+
+        StorageProvider storageProvider = plugin.createStorageProvider(name);
+        storageProvider.init();
+        return storageProvider;
+    }
+
+    private void shutdownIfUnused(@Nullable StorageProvider storageProvider) {
+        if (storageProvider == null || storageProvider == plugin.getPlayerManager().getStorageProvider()) return;
+
+        try {
+            storageProvider.shutdown();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        if (args.length == 3 || args.length == 4) {
+            return TabHelper.matchTabComplete(args[args.length - 1], PROVIDERS);
+        } else if (args.length == 5) {
+            return TabHelper.matchTabComplete(args[4], Collections.singletonList("confirm"));
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public @Nullable String getPermission() {
+        return "quests.admin";
+    }
+}
@@ -0,0 +1,62 @@
+package com.leonardobishop.quests.bukkit.command;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.storage.MySqlStorageProvider;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+public class AdminMigrateschemaCommandHandler implements CommandHandler {
+
+    private final BukkitQuestsPlugin plugin;
+
+    public AdminMigrateschemaCommandHandler(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void handle(CommandSender sender, String[] args) {
+        StorageProvider storageProvider = plugin.getPlayerManager().getStorageProvider();
+        if (!(storageProvider instanceof MySqlStorageProvider)) {
+            sender.sendMessage(ChatColor.RED + "This command is only applicable to the MySQL storage provider.");
+            return;
+        }
+        MySqlStorageProvider mySqlStorageProvider = (MySqlStorageProvider) storageProvider;
+        if (mySqlStorageProvider.isCompactSchema()) {
+            sender.sendMessage(ChatColor.RED + "Players are already stored in the compact schema.");
+            return;
+        }
+        if (args.length < 3 || !args[2].equalsIgnoreCase("confirm")) {
+            sender.sendMessage(ChatColor.GRAY + "This will copy all players to the compact schema while the server is running. " +
+                    "Players will continue to be saved to both schemas until the next restart.");
+            sender.sendMessage(ChatColor.GRAY + "Type " + ChatColor.RED + "/quests a migrateschema confirm" + ChatColor.GRAY + " to begin.");
+            return;
+        }
+
+        sender.sendMessage(ChatColor.GRAY + "Migrating players to the compact schema...");
+        Bukkit.getScheduler().runTaskAsynchronously(this.plugin, () -> {
+            boolean success = mySqlStorageProvider.migrateToCompactSchema(plugin.getPlayerManager().getSaveQueue(), message -> sender.sendMessage(ChatColor.GRAY + message));
+            if (success) {
+                sender.sendMessage(ChatColor.GREEN + "Players have been migrated to the compact schema.");
+            }
+        });
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        if (args.length == 3) {
+            return TabHelper.matchTabComplete(args[2], Collections.singletonList("confirm"));
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public @Nullable String getPermission() {
+        return "quests.admin";
+    }
+}
@@ -282,6 +282,11 @@ public class BukkitQuestsLoader implements QuestsLoader {
                                 }
                             }
 
+                            TaskType t = taskTypeManager.getTaskType(taskType);
+                            if (t != null) {
+                                task.setCompiledConfig(t.compile(task));
+                            }
+
                             quest.registerTask(task);
                         }
 
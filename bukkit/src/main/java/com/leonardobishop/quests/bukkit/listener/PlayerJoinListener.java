@@ -10,6 +10,8 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 
+import java.util.concurrent.CompletableFuture;
+
 public class PlayerJoinListener implements Listener {
 
     private final BukkitQuestsPlugin plugin;
@@ -33,26 +35,39 @@ public class PlayerJoinListener implements Listener {
         }
 
         final Player player = event.getPlayer();
-        plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, () -> {
+        int delay = plugin.getQuestsConfig().getInt("options.storage.synchronisation.delay-loading", 0);
+        if (delay <= 0) {
+            // the player is usually loaded already, or being loaded, by PlayerPreLoginListener
+            CompletableFuture<QPlayer> future = plugin.getPlayerManager().loadPlayerAsync(player.getUniqueId());
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                setUpPlayer(player, future.join());
+            } else {
+                future.thenAccept(qPlayer -> plugin.getScheduler().doSync(() -> setUpPlayer(player, qPlayer)));
+            }
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
             if (!player.isOnline()) return;
-            plugin.getPlayerManager().loadPlayer(player.getUniqueId());
-            plugin.getServer().getScheduler().runTask(plugin, () -> {
-                QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-                if (qPlayer == null) return;
-                // run a full check to check for any missed quest completions
-                plugin.getQuestCompleter().queueFullCheck(qPlayer.getQuestProgressFile());
-
-                // track first quest
-                if (plugin.getConfig().getBoolean("options.allow-quest-track") && plugin.getConfig().getBoolean("options.quest-autotrack")) {
-                    for (Quest quest : plugin.getQuestManager().getQuests().values()) {
-                        if (qPlayer.hasStartedQuest(quest)) {
-                            qPlayer.trackQuest(quest);
-                            break;
-                        }
-                    }
+            plugin.getPlayerManager().loadPlayerAsync(player.getUniqueId())
+                    .thenAccept(qPlayer -> plugin.getScheduler().doSync(() -> setUpPlayer(player, qPlayer)));
+        }, delay);
+    }
+
+    private void setUpPlayer(Player player, QPlayer qPlayer) {
+        if (qPlayer == null || !player.isOnline()) return;
+        // run a full check to check for any missed quest completions
+        plugin.getQuestCompleter().queueFullCheck(qPlayer.getQuestProgressFile());
+
+        // track first quest
+        if (plugin.getConfig().getBoolean("options.allow-quest-track") && plugin.getConfig().getBoolean("options.quest-autotrack")) {
+            for (Quest quest : plugin.getQuestManager().getQuests().values()) {
+                if (qPlayer.hasStartedQuest(quest)) {
+                    qPlayer.trackQuest(quest);
+                    break;
                 }
-            });
-        }, plugin.getQuestsConfig().getInt("options.storage.synchronisation.delay-loading", 0));
+            }
+        }
     }
 
 }
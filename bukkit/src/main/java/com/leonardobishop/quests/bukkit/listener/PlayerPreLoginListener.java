@@ -0,0 +1,55 @@
+package com.leonardobishop.quests.bukkit.listener;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Starts loading players while they log in, so that their progress is ready when they join. Players whose
+ * load takes longer than the timeout are allowed to join anyway, and are set up once it completes.
+ */
+public class PlayerPreLoginListener implements Listener {
+
+    // players are unloaded if they have still not joined after this long, such as if another plugin denied the login
+    private static final long UNUSED_PLAYER_EXPIRY = 20 * 60;
+
+    private final BukkitQuestsPlugin plugin;
+
+    public PlayerPreLoginListener(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEvent(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        // players are loaded after a delay instead, to give other servers time to save them
+        if (plugin.getQuestsConfig().getInt("options.storage.synchronisation.delay-loading", 0) > 0) return;
+
+        UUID uuid = event.getUniqueId();
+        long timeout = plugin.getQuestsConfig().getInt("options.storage.synchronisation.login-timeout", 5000);
+        try {
+            plugin.getPlayerManager().loadPlayerAsync(uuid).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            plugin.getQuestsLogger().warning("Player " + uuid + " is taking longer than " + timeout + "ms to load, and will be set up once loaded.");
+        } catch (ExecutionException e) {
+            plugin.getQuestsLogger().severe("Failed to load player: " + uuid + "!");
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (plugin.getServer().getPlayer(uuid) == null) {
+                plugin.getPlayerManager().dropPlayer(uuid);
+            }
+        }, UNUSED_PLAYER_EXPIRY);
+    }
+
+}
@@ -5,24 +5,39 @@ import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
-import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.QuestCompleter;
-import com.leonardobishop.quests.common.quest.Task;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.LinkedList;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 //TODO move complete effects here ?
+/**
+ * Checks queued quest progress for completion on the main thread. Quest progress queues itself once its last
+ * incomplete task is completed, so this is only scheduled to run when checks are queued, rather than every
+ * tick. Each run processes queued checks until both queues are empty or the time budget is used up, and
+ * always processes at least one of each; anything left over is processed by another run. Progress which is
+ * queued again before it has been checked is only checked once.
+ * <p>
+ * Checks may be queued from any thread without blocking, such as by task types listening to async events.
+ * This must only be run on the main thread, which is the only consumer of the queues.
+ */
 public class BukkitQuestCompleter implements QuestCompleter, Runnable {
 
-    private final Queue<QuestProgress> completionQueue = new LinkedList<>();
-    private final Queue<QuestProgressFile> fullCheckQueue = new LinkedList<>();
+    private final CheckQueue<QuestProgress> completionQueue = new CheckQueue<>();
+    private final CheckQueue<QuestProgressFile> fullCheckQueue = new CheckQueue<>();
     private final BukkitQuestsPlugin plugin;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    private volatile long delay = 1;
 
     public BukkitQuestCompleter(BukkitQuestsPlugin plugin) {
         this.plugin = plugin;
@@ -30,8 +45,48 @@ public class BukkitQuestCompleter implements QuestCompleter, Runnable {
 
     @Override
     public void run() {
+        // cleared first, so that checks queued while this runs schedule another run
+        scheduled.set(false);
+        long deadline = System.nanoTime() + timeBudgetNanos;
         this.processCompletionQueue();
         this.processFullCheckQueue();
+        while ((!completionQueue.isEmpty() || !fullCheckQueue.isEmpty()) && System.nanoTime() - deadline < 0) {
+            this.processCompletionQueue();
+            this.processFullCheckQueue();
+        }
+        if (!completionQueue.isEmpty() || !fullCheckQueue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTaskLater(plugin, this, delay);
+        }
+    }
+
+    /**
+     * Set the time each run may spend processing queued checks, after the first of each.
+     *
+     * @param timeBudget the time budget
+     * @param unit the unit of the time budget
+     */
+    public void setTimeBudget(long timeBudget, @NotNull TimeUnit unit) {
+        this.timeBudgetNanos = unit.toNanos(Math.max(0, timeBudget));
+    }
+
+    /**
+     * Set how long to wait after a check is queued before processing the queues.
+     *
+     * @param ticks the delay in server ticks
+     */
+    public void setDelay(long ticks) {
+        this.delay = Math.max(1, ticks);
+    }
+
+    @Override
+    public int getBacklog() {
+        return completionQueue.size() + fullCheckQueue.size();
     }
 
     private void processCompletionQueue() {
@@ -48,7 +103,7 @@ public class BukkitQuestCompleter implements QuestCompleter, Runnable {
 
             if (!qPlayer.hasStartedQuest(quest)) return;
 
-            if (checkComplete(quest, questProgress)) {
+            if (questProgress.hasCompletedAllTasks(quest)) {
                 qPlayer.completeQuest(quest);
             }
         }
@@ -68,45 +123,59 @@ public class BukkitQuestCompleter implements QuestCompleter, Runnable {
                 if (quest == null) continue;
                 if (!qPlayer.hasStartedQuest(quest)) continue;
 
-                boolean complete = true;
-                for (Task task : quest.getTasks()) {
-                    TaskProgress taskProgress;
-                    if ((taskProgress = questProgress.getTaskProgress(task.getId())) == null || !taskProgress.isCompleted()) {
-                        complete = false;
-                        break;
-                    }
-                }
-                if (complete) {
+                if (questProgress.hasCompletedAllTasks(quest)) {
                     qPlayer.completeQuest(quest);
                 }
             }
         }
     }
 
-    private boolean checkComplete(Quest quest, QuestProgress questProgress) {
-        boolean complete = true;
-        for (Task task : quest.getTasks()) {
-            TaskProgress taskProgress;
-            if ((taskProgress = questProgress.getTaskProgress(task.getId())) == null || !taskProgress.isCompleted()) {
-                complete = false;
-                break;
-            }
-        }
-
-        return complete;
-    }
-
     @Override
     public void queueSingular(@NotNull QuestProgress questProgress) {
         Objects.requireNonNull(questProgress, "questProgress cannot be null");
 
-        completionQueue.add(questProgress);
+        completionQueue.offer(questProgress);
+        schedule();
     }
 
     @Override
     public void queueFullCheck(@NotNull QuestProgressFile questProgressFile) {
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        fullCheckQueue.add(questProgressFile);
+        fullCheckQueue.offer(questProgressFile);
+        schedule();
+    }
+
+    /**
+     * A lock-free queue which ignores elements already waiting in it. Any number of threads may offer
+     * elements, but only one may poll them.
+     */
+    private static final class CheckQueue<T> {
+
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+        private final Set<T> queued = ConcurrentHashMap.newKeySet();
+
+        private void offer(T element) {
+            if (queued.add(element)) {
+                queue.offer(element);
+            }
+        }
+
+        private T poll() {
+            T element = queue.poll();
+            if (element != null) {
+                // removed before the element is processed, so that changes made while processing queue it again
+                queued.remove(element);
+            }
+            return element;
+        }
+
+        private boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        private int size() {
+            return queued.size();
+        }
     }
 }
@@ -9,9 +9,12 @@ import com.leonardobishop.quests.bukkit.util.Messages;
 import com.leonardobishop.quests.bukkit.util.SoundUtils;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.common.enums.QuestStartResult;
+import com.leonardobishop.quests.common.player.ActiveTaskIndex;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Category;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
@@ -19,9 +22,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public class NormalQuestController implements QuestController {
@@ -99,6 +100,11 @@ public class NormalQuestController implements QuestController {
                 qPlayer.trackQuest(quest);
             }
             questProgress.setCompleted(false);
+            if (hasAutoStartedQuests()) {
+                qPlayer.getActiveTaskIndex().invalidate();
+            } else {
+                qPlayer.getActiveTaskIndex().index(quest, questProgress, false);
+            }
             if (player != null) {
                 QItemStack qItemStack = plugin.getQItemStackRegistry().getQuestItemStack(quest);
                 String displayName = Chat.strip(qItemStack.getName());
@@ -143,23 +149,30 @@ public class NormalQuestController implements QuestController {
     @Override
     public QuestStartResult canPlayerStartQuest(QPlayer qPlayer, Quest quest) {
         Player p = Bukkit.getPlayer(qPlayer.getPlayerUUID());
-        QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-        if (!quest.isRepeatable() && questProgress.isCompletedBefore()) {
-            //if (playerUUID != null) {
-            // ???
-            //}
-            return QuestStartResult.QUEST_ALREADY_COMPLETED;
+        QuestStartResult result = getProgressResult(qPlayer.getQuestProgressFile(), quest);
+        if (result != QuestStartResult.QUEST_SUCCESS) {
+            return result;
         }
-        long cooldown = qPlayer.getQuestProgressFile().getCooldownFor(quest);
-        if (cooldown > 0) {
-            return QuestStartResult.QUEST_COOLDOWN;
+        result = checkPermissionsForStart(p, quest);
+        if (result != QuestStartResult.QUEST_SUCCESS) {
+            return result;
         }
-        if (!qPlayer.getQuestProgressFile().hasMetRequirements(quest)) {
-            return QuestStartResult.QUEST_LOCKED;
+        if (!config.getBoolean("options.quest-autostart") && countStartedQuests(qPlayer, p) >= config.getQuestLimit(p)) {
+            return QuestStartResult.QUEST_LIMIT_REACHED;
         }
-        if (questProgress.isStarted()) {
-            return QuestStartResult.QUEST_ALREADY_STARTED;
+        return QuestStartResult.QUEST_SUCCESS;
+    }
+
+    private QuestStartResult getProgressResult(QuestProgressFile questProgressFile, Quest quest) {
+        QuestStartResult progressResult = questProgressFile.getCachedStartResult(quest);
+        if (progressResult == null) {
+            progressResult = checkProgressForStart(questProgressFile, quest);
         }
+        return progressResult;
+    }
+
+    // permissions are checked every time, as they can change without anything to tell us
+    private QuestStartResult checkPermissionsForStart(Player p, Quest quest) {
         if (quest.isPermissionRequired()) {
             if (p != null) {
                 if (!p.hasPermission("quests.quest." + quest.getId())) {
@@ -179,12 +192,32 @@ public class NormalQuestController implements QuestController {
                 return QuestStartResult.NO_PERMISSION_FOR_CATEGORY;
             }
         }
-        if (!config.getBoolean("options.quest-autostart") && getStartedQuestsForPlayer(qPlayer).size() >= config.getQuestLimit(p)) {
-            return QuestStartResult.QUEST_LIMIT_REACHED;
-        }
         return QuestStartResult.QUEST_SUCCESS;
     }
 
+    /**
+     * Check whether the progress of a player allows them to start a quest, and remember the result until their
+     * progress changes or, if they are on cooldown, until the cooldown ends.
+     */
+    private QuestStartResult checkProgressForStart(QuestProgressFile questProgressFile, Quest quest) {
+        QuestProgress questProgress = questProgressFile.getQuestProgress(quest);
+        QuestStartResult result = QuestStartResult.QUEST_SUCCESS;
+        long expiresAt = Long.MAX_VALUE;
+        long cooldown;
+        if (!quest.isRepeatable() && questProgress.isCompletedBefore()) {
+            result = QuestStartResult.QUEST_ALREADY_COMPLETED;
+        } else if ((cooldown = questProgressFile.getCooldownFor(quest)) > 0) {
+            result = QuestStartResult.QUEST_COOLDOWN;
+            expiresAt = System.currentTimeMillis() + cooldown;
+        } else if (!questProgressFile.hasMetRequirements(quest)) {
+            result = QuestStartResult.QUEST_LOCKED;
+        } else if (questProgress.isStarted()) {
+            result = QuestStartResult.QUEST_ALREADY_STARTED;
+        }
+        questProgressFile.cacheStartResult(quest, result, expiresAt);
+        return result;
+    }
+
     @Override
     public boolean completeQuestForPlayer(QPlayer qPlayer, Quest quest) {
         QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
@@ -196,6 +229,11 @@ public class NormalQuestController implements QuestController {
         questProgress.setCompleted(true);
         questProgress.setCompletedBefore(true);
         questProgress.setCompletionDate(System.currentTimeMillis());
+        if (hasAutoStartedQuests()) {
+            qPlayer.getActiveTaskIndex().invalidate();
+        } else {
+            qPlayer.getActiveTaskIndex().remove(quest);
+        }
         if (config.getBoolean("options.allow-quest-track")) {
             trackNextQuest(qPlayer, quest);
         }
@@ -244,7 +282,7 @@ public class NormalQuestController implements QuestController {
             if (quest.isAutoStartEnabled()) {
                 QuestStartResult response = canPlayerStartQuest(qPlayer, quest);
                 return response == QuestStartResult.QUEST_SUCCESS || response == QuestStartResult.QUEST_ALREADY_STARTED;
-            } else return qPlayer.getQuestProgressFile().hasQuestProgress(quest) && qPlayer.getQuestProgressFile().getQuestProgress(quest).isStarted();
+            } else return qPlayer.getQuestProgressFile().isQuestStarted(quest);
         }
     }
 
@@ -262,6 +300,11 @@ public class NormalQuestController implements QuestController {
         for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
             taskProgress.setProgress(null);
         }
+        if (hasAutoStartedQuests()) {
+            qPlayer.getActiveTaskIndex().invalidate();
+        } else {
+            qPlayer.getActiveTaskIndex().remove(quest);
+        }
         if (player != null) {
             QItemStack qItemStack = plugin.getQItemStackRegistry().getQuestItemStack(quest);
             String displayName = Chat.strip(qItemStack.getName());
@@ -310,22 +353,94 @@ public class NormalQuestController implements QuestController {
         }
     }
 
-    private Set<Quest> getStartedQuestsForPlayer(QPlayer qPlayer) {
-        Set<Quest> startedQuests = new HashSet<>();
+    @Override
+    public void rebuildActiveTaskIndex(QPlayer qPlayer) {
+        ActiveTaskIndex activeTaskIndex = qPlayer.getActiveTaskIndex();
+        QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+        activeTaskIndex.clear();
+        List<Quest> missingProgress = new ArrayList<>();
         if (config.getBoolean("options.quest-autostart")) {
             for (Quest quest : plugin.getQuestManager().getQuests().values()) {
-                QuestStartResult response = canPlayerStartQuest(qPlayer, quest);
-                if (response == QuestStartResult.QUEST_SUCCESS || response == QuestStartResult.QUEST_ALREADY_STARTED) {
-                    startedQuests.add(quest);
-                }
+                indexAutoStarted(qPlayer, quest, missingProgress);
             }
         } else {
-            startedQuests.addAll(qPlayer.getQuestProgressFile().getStartedQuests());
+            for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+                if (!questProgress.isStarted()) continue;
+                Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+                if (quest == null || quest.isAutoStartEnabled()) continue;
+                activeTaskIndex.index(quest, questProgress, false);
+            }
             for (Quest quest : autoStartQuestCache) {
-                QuestStartResult response = canPlayerStartQuest(qPlayer, quest);
-                if (response == QuestStartResult.QUEST_SUCCESS || response == QuestStartResult.QUEST_ALREADY_STARTED) {
-                    startedQuests.add(quest);
+                indexAutoStarted(qPlayer, quest, missingProgress);
+            }
+        }
+        if (missingProgress.isEmpty()) return;
+
+        // the index may be rebuilt by a task type listening to an async event, but progress is only
+        // generated on the main thread
+        if (Bukkit.isPrimaryThread()) {
+            for (Quest quest : missingProgress) {
+                questProgressFile.getQuestProgress(quest);
+                indexAutoStarted(qPlayer, quest, missingProgress);
+            }
+        } else {
+            plugin.getScheduler().doSync(() -> {
+                for (Quest quest : missingProgress) {
+                    questProgressFile.getQuestProgress(quest);
                 }
+                activeTaskIndex.invalidate();
+            });
+        }
+    }
+
+    /**
+     * Index an autostarted quest if the progress of the player allows it to be started. Quests which are completed,
+     * locked or on cooldown are left out of the index, so that they are not checked each time a task progresses;
+     * the index is rebuilt when progress changes or the first cooldown ends.
+     */
+    private void indexAutoStarted(QPlayer qPlayer, Quest quest, List<Quest> missingProgress) {
+        ActiveTaskIndex activeTaskIndex = qPlayer.getActiveTaskIndex();
+        QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+        QuestProgress questProgress = questProgressFile.getExistingQuestProgress(quest);
+        if (questProgress == null) {
+            missingProgress.add(quest);
+            return;
+        }
+        QuestStartResult result = getProgressResult(questProgressFile, quest);
+        if (result == QuestStartResult.QUEST_COOLDOWN) {
+            activeTaskIndex.expireAt(System.currentTimeMillis() + questProgressFile.getCooldownFor(quest));
+            return;
+        }
+        if (result != QuestStartResult.QUEST_SUCCESS && result != QuestStartResult.QUEST_ALREADY_STARTED) return;
+
+        // permissions and the quest limit can change without anything to tell us, so are still checked each time
+        boolean startCheckRequired = isStartPermissionRequired(quest)
+                || (result == QuestStartResult.QUEST_SUCCESS && !config.getBoolean("options.quest-autostart"));
+        activeTaskIndex.index(quest, questProgress, startCheckRequired);
+    }
+
+    private boolean isStartPermissionRequired(Quest quest) {
+        if (quest.isPermissionRequired()) return true;
+        Category category = quest.getCategoryId() == null ? null : plugin.getQuestManager().getCategoryById(quest.getCategoryId());
+        return category != null && category.isPermissionRequired();
+    }
+
+    private boolean hasAutoStartedQuests() {
+        return config.getBoolean("options.quest-autostart") || !autoStartQuestCache.isEmpty();
+    }
+
+    /**
+     * Count the quests a player has started towards their quest limit. Quests with autostart enabled are counted
+     * once the player is able to start them, as they are started automatically.
+     */
+    private int countStartedQuests(QPlayer qPlayer, Player player) {
+        QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+        int startedQuests = questProgressFile.getStartedQuestCount();
+        for (Quest quest : autoStartQuestCache) {
+            if (questProgressFile.isQuestStarted(quest)) continue;
+            if (getProgressResult(questProgressFile, quest) == QuestStartResult.QUEST_SUCCESS
+                    && checkPermissionsForStart(player, quest) == QuestStartResult.QUEST_SUCCESS) {
+                startedQuests++;
             }
         }
         return startedQuests;
@@ -1,42 +1,81 @@
 package com.leonardobishop.quests.bukkit.runnable;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.QPlayer;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.UUID;
 
-public class QuestsAutoSaveRunnable extends BukkitRunnable {
+/**
+ * Saves online players once per autosave interval. This should be run every tick; each interval, every online
+ * player is queued and the queue is worked through evenly over the interval, so that saves are spread out
+ * regardless of how many players are online. Players without modified progress are skipped.
+ */
+public class QuestsAutoSaveRunnable implements Runnable {
 
-    private final Queue<UUID> queue = new LinkedList<>();
+    private final Queue<UUID> queue = new ArrayDeque<>();
     private final BukkitQuestsPlugin plugin;
+    private final long interval;
+    private long ticks;
+    private int playersPerTick;
+    private boolean cycleRunning;
+    private int saved;
+    private int skipped;
 
-    public QuestsAutoSaveRunnable(BukkitQuestsPlugin plugin) {
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            queue.add(player.getUniqueId());
-        }
-
+    /**
+     * @param interval the autosave interval in ticks
+     */
+    public QuestsAutoSaveRunnable(BukkitQuestsPlugin plugin, long interval) {
         this.plugin = plugin;
-
-        this.runTaskTimer(plugin, 2L, 2L);
+        this.interval = Math.max(1, interval);
     }
 
     @Override
     public void run() {
-        UUID player = queue.poll();
-        if (player == null) {
-            try {
-                super.cancel();
-            } catch (Exception ignored) {}
-            return;
+        if (ticks++ % interval == 0) {
+            startCycle();
+        }
+        if (!cycleRunning) return;
+
+        for (int i = 0; i < playersPerTick; i++) {
+            UUID uuid = queue.poll();
+            if (uuid == null) {
+                finishCycle();
+                return;
+            }
+            if (Bukkit.getPlayer(uuid) == null) continue;
+
+            QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
+            if (qPlayer == null) continue;
+            if (qPlayer.getQuestProgressFile().isModified()) {
+                plugin.getPlayerManager().savePlayer(uuid);
+                saved++;
+            } else {
+                skipped++;
+            }
         }
+    }
 
-        if (Bukkit.getPlayer(player) != null) {
-            plugin.getPlayerManager().savePlayer(player);
+    private void startCycle() {
+        if (cycleRunning) {
+            finishCycle();
         }
+        queue.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            queue.add(player.getUniqueId());
+        }
+        playersPerTick = (int) Math.max(1, (queue.size() + interval - 1) / interval);
+        cycleRunning = true;
+    }
+
+    private void finishCycle() {
+        plugin.getQuestsLogger().debug("Autosave complete: " + saved + " player(s) saved, " + skipped + " skipped as unchanged.");
+        cycleRunning = false;
+        saved = 0;
+        skipped = 0;
     }
 
 }
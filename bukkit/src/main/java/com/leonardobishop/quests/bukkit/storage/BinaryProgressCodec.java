@@ -0,0 +1,318 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.storage.StorageContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Encodes a {@link QuestProgressFile} in the binary format used by {@link BinaryStorageProvider}.
+ * <p>
+ * A file starts with the magic <code>QPRG</code>, a format version byte, and the length and CRC32 of the body.
+ * The body is a table of every quest and task id used, followed by each quest and its tasks, which refer to
+ * ids by their index in the table. Counts, indices and integral progress are written as varints. String and
+ * {@link BigDecimal} progress is also stored in the table, the latter as its string representation.
+ */
+final class BinaryProgressCodec {
+
+    private static final int MAGIC = 0x51505247; // QPRG
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 4 + 4;
+
+    private static final int QUEST_STARTED = 1;
+    private static final int QUEST_COMPLETED = 1 << 1;
+    private static final int QUEST_COMPLETED_BEFORE = 1 << 2;
+
+    private static final int TASK_COMPLETED = 1;
+    private static final int PROGRESS_NONE = 0;
+    private static final int PROGRESS_INT = 1;
+    private static final int PROGRESS_LONG = 2;
+    private static final int PROGRESS_FLOAT = 3;
+    private static final int PROGRESS_DOUBLE = 4;
+    private static final int PROGRESS_STRING = 5;
+    private static final int PROGRESS_DECIMAL = 6;
+
+    private final StorageContext context;
+
+    BinaryProgressCodec(StorageContext context) {
+        this.context = context;
+    }
+
+    ByteBuffer encode(QuestProgressFile questProgressFile) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            strings.putIfAbsent(questProgress.getQuestId(), strings.size());
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                strings.putIfAbsent(taskProgress.getTaskId(), strings.size());
+                String stringProgress = getStringProgress(taskProgress);
+                if (stringProgress != null) {
+                    strings.putIfAbsent(stringProgress, strings.size());
+                }
+            }
+        }
+
+        Output body = new Output();
+        body.writeVarInt(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            body.writeVarInt(bytes.length);
+            body.write(bytes);
+        }
+
+        Collection<QuestProgress> questProgressValues = questProgressFile.getAllQuestProgress();
+        body.writeVarInt(questProgressValues.size());
+        for (QuestProgress questProgress : questProgressValues) {
+            body.writeVarInt(strings.get(questProgress.getQuestId()));
+            body.writeByte((questProgress.isStarted() ? QUEST_STARTED : 0)
+                    | (questProgress.isCompleted() ? QUEST_COMPLETED : 0)
+                    | (questProgress.isCompletedBefore() ? QUEST_COMPLETED_BEFORE : 0));
+            body.writeVarLong(questProgress.getCompletionDate());
+
+            body.writeVarInt(questProgress.getTaskProgress().size());
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                body.writeVarInt(strings.get(taskProgress.getTaskId()));
+                int completed = taskProgress.isCompleted() ? TASK_COMPLETED : 0;
+                switch (taskProgress.getProgressType()) {
+                    case INTEGER:
+                        body.writeByte(completed | PROGRESS_INT << 1);
+                        body.writeVarLong(zigZag(taskProgress.getLongProgress()));
+                        break;
+                    case LONG:
+                        body.writeByte(completed | PROGRESS_LONG << 1);
+                        body.writeVarLong(zigZag(taskProgress.getLongProgress()));
+                        break;
+                    case FLOAT:
+                        body.writeByte(completed | PROGRESS_FLOAT << 1);
+                        body.writeInt(Float.floatToIntBits((float) taskProgress.getDoubleProgress()));
+                        break;
+                    case DOUBLE:
+                        body.writeByte(completed | PROGRESS_DOUBLE << 1);
+                        body.writeLong(Double.doubleToLongBits(taskProgress.getDoubleProgress()));
+                        break;
+                    case OBJECT:
+                        Object progress = taskProgress.getProgress();
+                        if (progress instanceof String || progress instanceof BigDecimal) {
+                            body.writeByte(completed | (progress instanceof String ? PROGRESS_STRING : PROGRESS_DECIMAL) << 1);
+                            body.writeVarInt(strings.get(getStringProgress(taskProgress)));
+                            break;
+                        }
+                        // the task is still written so that whether it is completed is kept
+                        context.getQuestsLogger().warning("Cannot store progress for task '"
+                                + taskProgress.getTaskId() + "' in quest '" + questProgress.getQuestId() + "' for player " + questProgressFile.getPlayerUUID()
+                                + " since type " + progress.getClass().getName() + " cannot be encoded!");
+                        body.writeByte(completed | PROGRESS_NONE << 1);
+                        break;
+                    default:
+                        body.writeByte(completed | PROGRESS_NONE << 1);
+                }
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body.buffer, 0, body.size);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + body.size);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putInt(body.size);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(body.buffer, 0, body.size);
+        buffer.flip();
+        return buffer;
+    }
+
+    QuestProgressFile decode(UUID uuid, ByteBuffer buffer) throws IOException {
+        return decode(uuid, buffer, false);
+    }
+
+    /**
+     * @param modified whether the decoded progress should be marked as modified, so that it can be merged
+     *                 into another file with {@link QuestProgressFile#mergeModified(QuestProgressFile)}
+     */
+    QuestProgressFile decode(UUID uuid, ByteBuffer buffer, boolean modified) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a quest progress file");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("unsupported format version " + version);
+            }
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length != buffer.remaining()) {
+                throw new IOException("expected " + length + " bytes but found " + buffer.remaining());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("checksum mismatch");
+            }
+
+            String[] strings = new String[readVarInt(buffer)];
+            for (int i = 0; i < strings.length; i++) {
+                int stringLength = readVarInt(buffer);
+                strings[i] = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), stringLength, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + stringLength);
+            }
+
+            QuestProgressFile questProgressFile = new QuestProgressFile(uuid, context.getPlugin());
+            int quests = readVarInt(buffer);
+            for (int i = 0; i < quests; i++) {
+                String questId = strings[readVarInt(buffer)];
+                int questFlags = buffer.get();
+                long completionDate = readVarLong(buffer);
+                QuestProgress questProgress = new QuestProgress(context.getPlugin(), questId, (questFlags & QUEST_COMPLETED) != 0,
+                        (questFlags & QUEST_COMPLETED_BEFORE) != 0, completionDate, uuid, (questFlags & QUEST_STARTED) != 0, modified);
+
+                int tasks = readVarInt(buffer);
+                for (int j = 0; j < tasks; j++) {
+                    String taskId = strings[readVarInt(buffer)];
+                    int taskFlags = buffer.get();
+                    Object progress;
+                    switch (taskFlags >>> 1) {
+                        case PROGRESS_INT:
+                            progress = (int) unZigZag(readVarLong(buffer));
+                            break;
+                        case PROGRESS_LONG:
+                            progress = unZigZag(readVarLong(buffer));
+                            break;
+                        case PROGRESS_FLOAT:
+                            progress = Float.intBitsToFloat(buffer.getInt());
+                            break;
+                        case PROGRESS_DOUBLE:
+                            progress = Double.longBitsToDouble(buffer.getLong());
+                            break;
+                        case PROGRESS_STRING:
+                            progress = strings[readVarInt(buffer)];
+                            break;
+                        case PROGRESS_DECIMAL:
+                            try {
+                                progress = new BigDecimal(strings[readVarInt(buffer)]);
+                            } catch (NumberFormatException e) {
+                                throw new IOException("invalid decimal progress", e);
+                            }
+                            break;
+                        case PROGRESS_NONE:
+                            progress = null;
+                            break;
+                        default:
+                            throw new IOException("unknown progress type " + (taskFlags >>> 1));
+                    }
+
+                    TaskProgress taskProgress = new TaskProgress(questProgress, taskId, progress, uuid, (taskFlags & TASK_COMPLETED) != 0, modified);
+                    questProgress.addTaskProgress(taskProgress);
+                }
+
+                questProgressFile.addQuestProgress(questProgress);
+            }
+            return questProgressFile;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("file is truncated or corrupt", e);
+        }
+    }
+
+    /**
+     * @return the progress of a task as it is stored in the string table, or null if it is not stored there
+     */
+    private static String getStringProgress(TaskProgress taskProgress) {
+        if (taskProgress.getProgressType() != TaskProgress.ProgressType.OBJECT) return null;
+
+        Object progress = taskProgress.getProgress();
+        if (progress instanceof String) {
+            return (String) progress;
+        } else if (progress instanceof BigDecimal) {
+            return ((BigDecimal) progress).toString();
+        }
+        return null;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        long value = readVarLong(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("varint out of range");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint is too long");
+    }
+
+    /**
+     * A growable byte buffer, which avoids the synchronisation of {@link java.io.ByteArrayOutputStream}.
+     */
+    private static final class Output {
+
+        private byte[] buffer = new byte[256];
+        private int size;
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        private void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void writeInt(int value) {
+            ensureCapacity(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.scheduler.ServerScheduler;
+import com.leonardobishop.quests.common.storage.PluginStorageContext;
+import com.leonardobishop.quests.common.storage.StorageContext;
+import com.leonardobishop.quests.common.storage.StorageException;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Stores each player in a compact binary file in the playerdata folder. See {@link BinaryProgressCodec}
+ * for the format. Players who only have a YAML file are converted in the background when the provider
+ * starts, or when they are loaded if that happens first.
+ * <p>
+ * In journal mode, saves append the modified progress to a per-player journal next to the snapshot instead
+ * of rewriting it. Each record is the length of an encoded progress file followed by the file itself. When
+ * a journal grows past the compaction threshold, the snapshot is rewritten and the journal is deleted.
+ * Journals are replayed on load regardless of the mode, stopping at the first incomplete record.
+ */
+public class BinaryStorageProvider implements StorageProvider {
+
+    private static final int MAX_CACHED_DOCUMENTS = 1000;
+    private static final int LOCK_STRIPES = 64;
+    private static final String EXTENSION = ".qpb";
+    private static final String JOURNAL_EXTENSION = ".qpj";
+
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    // what is stored on disk for recently loaded or saved players, so that saves do not need to read it back
+    private final Map<UUID, QuestProgressFile> documents = ProgressDocuments.newCache(MAX_CACHED_DOCUMENTS);
+    private final StorageContext context;
+    private final File dataFolder;
+    private final ServerScheduler scheduler;
+    private final BinaryProgressCodec codec;
+    private final YamlStorageProvider yamlStorageProvider;
+    private final boolean journal;
+    private final long compactionThreshold;
+
+    public BinaryStorageProvider(BukkitQuestsPlugin plugin) {
+        this(plugin, false, 0);
+    }
+
+    /**
+     * @param journal whether saves should be appended to a journal rather than rewrite the player's file
+     * @param compactionThreshold the size (in bytes) at which a journal is compacted into the player's file
+     */
+    public BinaryStorageProvider(BukkitQuestsPlugin plugin, boolean journal, long compactionThreshold) {
+        this(new PluginStorageContext(plugin), plugin.getDataFolder(), plugin.getScheduler(), journal, compactionThreshold);
+    }
+
+    /**
+     * @param dataFolder the folder containing the playerdata folder
+     * @param scheduler the scheduler to convert YAML files in the background with
+     * @param journal whether saves should be appended to a journal rather than rewrite the player's file
+     * @param compactionThreshold the size (in bytes) at which a journal is compacted into the player's file
+     */
+    public BinaryStorageProvider(StorageContext context, File dataFolder, ServerScheduler scheduler, boolean journal, long compactionThreshold) {
+        this.context = context;
+        this.dataFolder = dataFolder;
+        this.scheduler = scheduler;
+        this.codec = new BinaryProgressCodec(context);
+        this.yamlStorageProvider = new YamlStorageProvider(context, dataFolder);
+        this.journal = journal;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public void init() {
+        getDirectory().mkdirs();
+        scheduler.doAsync(() -> {
+            int converted = convertYamlFiles(message -> context.getQuestsLogger().info(message));
+            if (converted > 0) {
+                context.getQuestsLogger().info("Converted " + converted + " YAML quest progress file(s) to the binary format.");
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        context.getQuestsLogger().debug("Binary storage: " + getStatistics() + ".");
+    }
+
+    @Override
+    public @NotNull String getStatistics() {
+        return locks.describeWaits();
+    }
+
+    @Override
+    public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        ReentrantLock lock = locks.lock(uuid);
+        try {
+            QuestProgressFile document = readDocument(uuid);
+            documents.put(uuid, document);
+            return ProgressDocuments.toLoadedFile(context, uuid, document);
+        } catch (Exception ex) {
+            context.getQuestsLogger().severe("Failed to load player: " + uuid + "!");
+            ex.printStackTrace();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Includes players who have not been converted from YAML yet.
+     */
+    @Override
+    public @NotNull Collection<UUID> loadAllUUIDs() {
+        return ProgressDocuments.listPlayers(getDirectory(), EXTENSION, JOURNAL_EXTENSION, ".yml");
+    }
+
+    private QuestProgressFile readDocument(UUID uuid) throws IOException {
+        QuestProgressFile document = readSnapshot(uuid);
+        replayJournal(uuid, document);
+        return document;
+    }
+
+    private QuestProgressFile readSnapshot(UUID uuid) throws IOException {
+        File file = getFile(uuid);
+        if (!file.exists()) {
+            File yamlFile = new File(getDirectory(), uuid + ".yml");
+            if (yamlFile.exists()) {
+                context.getQuestsLogger().debug("Converting YAML quest progress file of player " + uuid + ".");
+                QuestProgressFile document = yamlStorageProvider.readDocument(uuid);
+                write(document, file);
+                return document;
+            }
+            context.getQuestsLogger().debug("Player " + uuid + " does not have a quest progress file.");
+            return new QuestProgressFile(uuid, context.getPlugin());
+        }
+
+        return codec.decode(uuid, read(file));
+    }
+
+    /**
+     * Merge every complete record in the player's journal into their document. A record which was only
+     * partly written, because the server stopped during an append, is cut off the end of the journal.
+     */
+    private void replayJournal(UUID uuid, QuestProgressFile document) throws IOException {
+        File journalFile = getJournalFile(uuid);
+        if (!journalFile.exists()) return;
+
+        ByteBuffer buffer = read(journalFile);
+        int records = 0;
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer record = ByteBuffer.wrap(buffer.array(), buffer.arrayOffset() + buffer.position(), length).slice();
+            try {
+                document.mergeModified(codec.decode(uuid, record, true));
+            } catch (IOException e) {
+                buffer.position(start);
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            records++;
+        }
+
+        if (buffer.hasRemaining()) {
+            context.getQuestsLogger().warning("Discarding " + buffer.remaining() + " byte(s) of incomplete journal of player " + uuid + ".");
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(buffer.position());
+            }
+        }
+        context.getQuestsLogger().debug("Replayed " + records + " journal record(s) of player " + uuid + ".");
+    }
+
+    private static ByteBuffer read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(file.getName() + " is too large");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Merges the modified progress into what is stored for the player and writes the whole file, without
+     * reading it back from disk unless the player was not loaded recently. In journal mode, only the
+     * modified progress is appended to the player's journal.
+     */
+    @Override
+    public void saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        ReentrantLock lock = locks.lock(uuid);
+        try {
+            if (journal) {
+                appendToJournal(uuid, questProgressFile);
+                return;
+            }
+
+            QuestProgressFile document = documents.get(uuid);
+            if (document == null) {
+                document = readDocument(uuid);
+                documents.put(uuid, document);
+            }
+            document.mergeModified(questProgressFile);
+
+            context.getQuestsLogger().debug("Writing player " + uuid + " to disk.");
+            write(document, getFile(uuid));
+            Files.deleteIfExists(getJournalFile(uuid).toPath());
+            context.getQuestsLogger().debug("Write of player " + uuid + " to disk complete.");
+        } catch (IOException e) {
+            // the merged progress is kept, so it is also written with the next save
+            throw new StorageException("Failed to write player: " + uuid, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendToJournal(UUID uuid, QuestProgressFile questProgressFile) throws IOException {
+        if (questProgressFile.getAllQuestProgress().isEmpty()) return;
+
+        ByteBuffer record = codec.encode(questProgressFile);
+        ByteBuffer length = ByteBuffer.allocate(4);
+        length.putInt(0, record.remaining());
+
+        File journalFile = getJournalFile(uuid);
+        long journalSize;
+        context.getQuestsLogger().debug("Appending " + record.remaining() + " byte(s) to journal of player " + uuid + ".");
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer[] buffers = {length, record};
+            while (record.hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(false);
+            journalSize = channel.size();
+        }
+
+        QuestProgressFile document = documents.get(uuid);
+        if (document != null) {
+            document.mergeModified(questProgressFile);
+        }
+
+        if (journalSize >= compactionThreshold) {
+            compact(uuid);
+        }
+    }
+
+    /**
+     * Write the player's whole document to their file and delete their journal. The journal is only deleted once
+     * the file is on disk. If the server stops between the two, the journal is replayed onto a file which already
+     * contains it, which changes nothing.
+     */
+    private void compact(UUID uuid) throws IOException {
+        QuestProgressFile document = documents.get(uuid);
+        if (document == null) {
+            document = readDocument(uuid);
+            documents.put(uuid, document);
+        }
+
+        context.getQuestsLogger().debug("Compacting journal of player " + uuid + ".");
+        write(document, getFile(uuid));
+        Files.deleteIfExists(getJournalFile(uuid).toPath());
+    }
+
+    /**
+     * Write a document over a file. When this returns, the new file is on disk, so anything it replaces, such as
+     * a journal, can be deleted.
+     */
+    private void write(QuestProgressFile document, File file) throws IOException {
+        File temporaryFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        ByteBuffer buffer = codec.encode(document);
+        try (FileChannel channel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        ProgressDocuments.replace(temporaryFile, file);
+        ProgressDocuments.syncDirectory(file.getParentFile());
+    }
+
+    /**
+     * Convert every player with a YAML file, but no binary file, in the playerdata folder. Players are
+     * otherwise converted the first time they are loaded.
+     *
+     * @param progressCallback receives progress messages
+     * @return the number of players converted
+     */
+    public int convertYamlFiles(@NotNull Consumer<String> progressCallback) {
+        Objects.requireNonNull(progressCallback, "progressCallback cannot be null");
+
+        File[] yamlFiles = getDirectory().listFiles((dir, name) -> name.endsWith(".yml"));
+        if (yamlFiles == null) return 0;
+
+        int converted = 0;
+        for (File yamlFile : yamlFiles) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(yamlFile.getName().substring(0, yamlFile.getName().length() - 4));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            ReentrantLock lock = locks.lock(uuid);
+            try {
+                File file = getFile(uuid);
+                if (file.exists()) continue;
+
+                write(yamlStorageProvider.readDocument(uuid), file);
+                if (++converted % 1000 == 0) {
+                    progressCallback.accept("Converted " + converted + " players...");
+                }
+            } catch (Exception e) {
+                context.getQuestsLogger().severe("Failed to convert player: " + uuid + "!");
+                e.printStackTrace();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return converted;
+    }
+
+    private File getDirectory() {
+        return new File(dataFolder + File.separator + "playerdata");
+    }
+
+    private File getFile(UUID uuid) {
+        return new File(getDirectory(), uuid + EXTENSION);
+    }
+
+    private File getJournalFile(UUID uuid) {
+        return new File(getDirectory(), uuid + JOURNAL_EXTENSION);
+    }
+}
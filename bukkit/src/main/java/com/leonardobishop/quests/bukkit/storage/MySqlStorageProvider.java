@@ -1,10 +1,12 @@
 package com.leonardobishop.quests.bukkit.storage;
 
-import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.SaveQueue;
+import com.leonardobishop.quests.common.storage.StorageContext;
+import com.leonardobishop.quests.common.storage.StorageException;
 import com.leonardobishop.quests.common.storage.StorageProvider;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -13,8 +15,13 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class MySqlStorageProvider implements StorageProvider {
@@ -37,28 +44,119 @@ public class MySqlStorageProvider implements StorageProvider {
                     " `progress`   VARCHAR(64)  NULL," +
                     " `data_type`  VARCHAR(10)  NULL," +
                     " PRIMARY KEY (`uuid`, `quest_id`, `task_id`));";
-    private static final String SELECT_PLAYER_QUEST_PROGRESS =
-            "SELECT quest_id, started, completed, completed_before, completion_date FROM `{prefix}quest_progress` WHERE uuid=?;";
-    private static final String SELECT_PLAYER_TASK_PROGRESS =
-            "SELECT quest_id, task_id, completed, progress, data_type FROM `{prefix}task_progress` WHERE uuid=?;";
+    private static final String SELECT_PLAYERS_PROGRESS =
+            "SELECT q.uuid, q.quest_id, q.started, q.completed, q.completed_before, q.completion_date, t.task_id, t.completed, t.progress, t.data_type" +
+                    " FROM `{prefix}quest_progress` q" +
+                    " LEFT JOIN `{prefix}task_progress` t ON t.uuid = q.uuid AND t.quest_id = q.quest_id" +
+                    " WHERE q.uuid IN ({uuids});";
+    private static final String SELECT_ALL_UUIDS =
+            "SELECT DISTINCT uuid FROM `{prefix}quest_progress`;";
     private static final String SELECT_KNOWN_PLAYER_QUEST_PROGRESS =
             "SELECT quest_id FROM `{prefix}quest_progress` WHERE uuid=?;";
     private static final String SELECT_KNOWN_PLAYER_TASK_PROGRESS =
             "SELECT quest_id, task_id FROM `{prefix}task_progress` WHERE uuid=?;";
     private static final String WRITE_PLAYER_QUEST_PROGRESS =
-            "INSERT INTO `{prefix}quest_progress` (uuid, quest_id, started, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE started=?, completed=?, completed_before=?, completion_date=?";
+            "INSERT INTO `{prefix}quest_progress` (uuid, quest_id, started, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE started=VALUES(started), completed=VALUES(completed), completed_before=VALUES(completed_before), completion_date=VALUES(completion_date)";
     private static final String WRITE_PLAYER_TASK_PROGRESS =
-            "INSERT INTO `{prefix}task_progress` (uuid, quest_id, task_id, completed, progress, data_type) VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE completed=?, progress=?, data_type=?";
+            "INSERT INTO `{prefix}task_progress` (uuid, quest_id, task_id, completed, progress, data_type) VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE completed=VALUES(completed), progress=VALUES(progress), data_type=VALUES(data_type)";
+
+
+    // Compact schema: binary uuids, numeric progress, and quest and task ids interned into lookup tables
+    private static final String CREATE_TABLE_QUEST_IDS =
+            "CREATE TABLE IF NOT EXISTS `{prefix}quest_ids` (" +
+                    " `id`        MEDIUMINT UNSIGNED  NOT NULL AUTO_INCREMENT," +
+                    " `quest_id`  VARCHAR(50)         CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL," +
+                    " PRIMARY KEY (`id`)," +
+                    " UNIQUE KEY (`quest_id`));";
+    private static final String CREATE_TABLE_TASK_IDS =
+            "CREATE TABLE IF NOT EXISTS `{prefix}task_ids` (" +
+                    " `id`       MEDIUMINT UNSIGNED  NOT NULL AUTO_INCREMENT," +
+                    " `task_id`  VARCHAR(50)         CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL," +
+                    " PRIMARY KEY (`id`)," +
+                    " UNIQUE KEY (`task_id`));";
+    private static final String CREATE_TABLE_QUEST_PROGRESS_V2 =
+            "CREATE TABLE IF NOT EXISTS `{prefix}quest_progress_v2` (" +
+                    " `uuid`              BINARY(16)          NOT NULL," +
+                    " `quest`             MEDIUMINT UNSIGNED  NOT NULL," +
+                    " `started`           BOOL                NOT NULL," +
+                    " `completed`         BOOL                NOT NULL," +
+                    " `completed_before`  BOOL                NOT NULL," +
+                    " `completion_date`   BIGINT              NOT NULL," +
+                    " PRIMARY KEY (`uuid`, `quest`));";
+    private static final String CREATE_TABLE_TASK_PROGRESS_V2 =
+            "CREATE TABLE IF NOT EXISTS `{prefix}task_progress_v2` (" +
+                    " `uuid`             BINARY(16)          NOT NULL," +
+                    " `quest`            MEDIUMINT UNSIGNED  NOT NULL," +
+                    " `task`             MEDIUMINT UNSIGNED  NOT NULL," +
+                    " `completed`        BOOL                NOT NULL," +
+                    " `progress_type`    TINYINT             NOT NULL," +
+                    " `progress_long`    BIGINT              NULL," +
+                    " `progress_double`  DOUBLE              NULL," +
+                    " PRIMARY KEY (`uuid`, `quest`, `task`));";
+    private static final String SELECT_PLAYERS_PROGRESS_V2 =
+            "SELECT q.uuid, q.quest, q.started, q.completed, q.completed_before, q.completion_date, t.task, t.completed, t.progress_type, t.progress_long, t.progress_double" +
+                    " FROM `{prefix}quest_progress_v2` q" +
+                    " LEFT JOIN `{prefix}task_progress_v2` t ON t.uuid = q.uuid AND t.quest = q.quest" +
+                    " WHERE q.uuid IN ({uuids});";
+    private static final String SELECT_ALL_UUIDS_V2 =
+            "SELECT DISTINCT uuid FROM `{prefix}quest_progress_v2`;";
+    private static final String WRITE_PLAYER_QUEST_PROGRESS_V2 =
+            "INSERT INTO `{prefix}quest_progress_v2` (uuid, quest, started, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE started=VALUES(started), completed=VALUES(completed), completed_before=VALUES(completed_before), completion_date=VALUES(completion_date)";
+    private static final String WRITE_PLAYER_TASK_PROGRESS_V2 =
+            "INSERT INTO `{prefix}task_progress_v2` (uuid, quest, task, completed, progress_type, progress_long, progress_double) VALUES (?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE completed=VALUES(completed), progress_type=VALUES(progress_type), progress_long=VALUES(progress_long), progress_double=VALUES(progress_double)";
+
+    // Migration from the original schema to the compact schema, copying players in chunks
+    private static final String CLEAR_QUEST_PROGRESS_V2 =
+            "TRUNCATE TABLE `{prefix}quest_progress_v2`;";
+    private static final String CLEAR_TASK_PROGRESS_V2 =
+            "TRUNCATE TABLE `{prefix}task_progress_v2`;";
+    private static final String MIGRATE_QUEST_IDS =
+            "INSERT IGNORE INTO `{prefix}quest_ids` (quest_id) SELECT DISTINCT quest_id FROM `{prefix}quest_progress`;";
+    private static final String MIGRATE_TASK_IDS =
+            "INSERT IGNORE INTO `{prefix}task_ids` (task_id) SELECT DISTINCT task_id FROM `{prefix}task_progress`;";
+    private static final String SELECT_MIGRATION_CHUNK =
+            "SELECT uuid FROM (SELECT DISTINCT uuid FROM `{prefix}quest_progress` WHERE uuid > ? ORDER BY uuid LIMIT ?) chunk ORDER BY uuid DESC LIMIT 1;";
+    private static final String MIGRATE_QUEST_PROGRESS =
+            "INSERT IGNORE INTO `{prefix}quest_progress_v2` (uuid, quest, started, completed, completed_before, completion_date)" +
+                    " SELECT UNHEX(REPLACE(p.uuid, '-', '')), q.id, p.started, p.completed, p.completed_before, p.completion_date" +
+                    " FROM `{prefix}quest_progress` p" +
+                    " JOIN `{prefix}quest_ids` q ON q.quest_id = CONVERT(p.quest_id USING utf8mb4) COLLATE utf8mb4_bin" +
+                    " WHERE p.uuid > ? AND p.uuid <= ?;";
+    private static final String MIGRATE_TASK_PROGRESS =
+            "INSERT IGNORE INTO `{prefix}task_progress_v2` (uuid, quest, task, completed, progress_type, progress_long, progress_double)" +
+                    " SELECT UNHEX(REPLACE(p.uuid, '-', '')), q.id, t.id, p.completed," +
+                    " CASE p.data_type WHEN 'int' THEN 1 WHEN 'long' THEN 2 WHEN 'float' THEN 3 WHEN 'double' THEN 4 ELSE 0 END," +
+                    " CASE WHEN p.data_type IN ('int', 'long') THEN CAST(p.progress AS SIGNED) END," +
+                    " CASE WHEN p.data_type IN ('float', 'double') THEN p.progress + 0E0 END" +
+                    " FROM `{prefix}task_progress` p" +
+                    " JOIN `{prefix}quest_ids` q ON q.quest_id = CONVERT(p.quest_id USING utf8mb4) COLLATE utf8mb4_bin" +
+                    " JOIN `{prefix}task_ids` t ON t.task_id = CONVERT(p.task_id USING utf8mb4) COLLATE utf8mb4_bin" +
+                    " WHERE p.uuid > ? AND p.uuid <= ? AND (p.data_type IS NULL OR p.data_type IN ('int', 'long', 'float', 'double'));";
+    private static final int MIGRATION_CHUNK_SIZE = 500;
+    private static final int LOAD_CHUNK_SIZE = 100;
+
+    private static final byte PROGRESS_TYPE_NONE = 0;
+    private static final byte PROGRESS_TYPE_INT = 1;
+    private static final byte PROGRESS_TYPE_LONG = 2;
+    private static final byte PROGRESS_TYPE_FLOAT = 3;
+    private static final byte PROGRESS_TYPE_DOUBLE = 4;
 
     private final ConfigurationSection configuration;
-    private final BukkitQuestsPlugin plugin;
+    private final StorageContext context;
+    private final SqlProgressCodec codec;
     private HikariDataSource hikari;
     private String prefix;
     private Function<String, String> statementProcessor;
     private boolean fault;
+    private InternTable questIds;
+    private InternTable taskIds;
+    private volatile boolean compactSchema;
+    private volatile boolean migrating;
+    private final AtomicBoolean migrationRunning = new AtomicBoolean();
 
-    public MySqlStorageProvider(BukkitQuestsPlugin plugin, ConfigurationSection configuration) {
-        this.plugin = plugin;
+    public MySqlStorageProvider(StorageContext context, ConfigurationSection configuration) {
+        this.context = context;
+        this.codec = new SqlProgressCodec(context);
         if (configuration == null) {
             configuration = new YamlConfiguration();
         }
@@ -107,19 +205,39 @@ public class MySqlStorageProvider implements StorageProvider {
         }
         this.prefix = configuration.getString("database-settings.table-prefix", "quests_");
         this.statementProcessor = s -> s.replace("{prefix}", prefix);
+        this.questIds = new InternTable("quest_ids", "quest_id");
+        this.taskIds = new InternTable("task_ids", "task_id");
+        this.compactSchema = configuration.getBoolean("compact-schema", false);
         try (Connection connection = hikari.getConnection()) {
             try (Statement s = connection.createStatement()) {
-                plugin.getQuestsLogger().debug("Creating default tables");
+                context.getQuestsLogger().debug("Creating default tables");
                 s.addBatch(this.statementProcessor.apply(CREATE_TABLE_QUEST_PROGRESS));
                 s.addBatch(this.statementProcessor.apply(CREATE_TABLE_TASK_PROGRESS));
 
                 s.executeBatch();
             }
+            if (compactSchema) {
+                createCompactTables(connection);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    private void createCompactTables(Connection connection) throws SQLException {
+        try (Statement s = connection.createStatement()) {
+            context.getQuestsLogger().debug("Creating compact schema tables");
+            s.addBatch(this.statementProcessor.apply(CREATE_TABLE_QUEST_IDS));
+            s.addBatch(this.statementProcessor.apply(CREATE_TABLE_TASK_IDS));
+            s.addBatch(this.statementProcessor.apply(CREATE_TABLE_QUEST_PROGRESS_V2));
+            s.addBatch(this.statementProcessor.apply(CREATE_TABLE_TASK_PROGRESS_V2));
+
+            s.executeBatch();
+        }
+        questIds.loadAll(connection);
+        taskIds.loadAll(connection);
+    }
+
     @Override
     public void shutdown() {
         if (hikari != null) hikari.close();
@@ -130,90 +248,131 @@ public class MySqlStorageProvider implements StorageProvider {
     public QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
-        if (fault) return null;
-        Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
-        boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+        return loadProgressFiles(Collections.singletonList(uuid)).get(uuid);
+    }
 
-        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
-        try (Connection connection = hikari.getConnection()) {
-            plugin.getQuestsLogger().debug("Querying player " + uuid);
-            Map<String, QuestProgress> questProgressMap = new HashMap<>();
-            try (PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_PLAYER_QUEST_PROGRESS))) {
-                ps.setString(1, uuid.toString());
+    /**
+     * Load many players, fetching quest and task progress together with one query per chunk of players.
+     */
+    @Override
+    public @NotNull Map<UUID, QuestProgressFile> loadProgressFiles(@NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids cannot be null");
 
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        String questId = rs.getString(1);
-                        boolean started = rs.getBoolean(2);
-                        boolean completed = rs.getBoolean(3);
-                        boolean completedBefore = rs.getBoolean(4);
-                        long completionDate = rs.getLong(5);
+        if (fault || uuids.isEmpty()) return Collections.emptyMap();
+        Map<String, Quest> presentQuests = new HashMap<>(context.getQuests());
+        boolean validateQuests = context.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
 
-                        if (validateQuests && !presentQuests.containsKey(questId)) continue;
-                        QuestProgress questProgress = new QuestProgress(plugin, questId, completed, completedBefore, completionDate, uuid, started);
-                        questProgressMap.put(questId, questProgress);
+        Map<UUID, QuestProgressFile> questProgressFiles = new HashMap<>();
+        List<UUID> remaining = new ArrayList<>(new LinkedHashSet<>(uuids));
+        try (Connection connection = hikari.getConnection()) {
+            for (int i = 0; i < remaining.size(); i += LOAD_CHUNK_SIZE) {
+                List<UUID> chunk = remaining.subList(i, Math.min(i + LOAD_CHUNK_SIZE, remaining.size()));
+                context.getQuestsLogger().debug("Querying " + chunk.size() + " player(s)");
+                try {
+                    if (compactSchema) {
+                        questProgressFiles.putAll(loadCompactChunk(connection, chunk, presentQuests, validateQuests));
+                    } else {
+                        String statement = SqlProgressCodec.withUuidPlaceholders(this.statementProcessor.apply(SELECT_PLAYERS_PROGRESS), chunk.size());
+                        questProgressFiles.putAll(codec.loadChunk(connection, statement, chunk, presentQuests, validateQuests));
                     }
+                } catch (SQLException e) {
+                    context.getQuestsLogger().severe("Failed to load player(s): " + chunk + "!");
+                    e.printStackTrace();
                 }
             }
-            try (PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_PLAYER_TASK_PROGRESS))) {
-                ps.setString(1, uuid.toString());
+        } catch (SQLException e) {
+            context.getQuestsLogger().severe("Failed to load player(s): " + remaining + "!");
+            e.printStackTrace();
+        }
+        return questProgressFiles;
+    }
 
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        String questId = rs.getString(1);
-                        String taskId = rs.getString(2);
-                        boolean completed = rs.getBoolean(3);
-                        String encodedProgress = rs.getString(4);
-                        String type = rs.getString(5);
-                        Object progress;
-                        try {
-                            if (type == null) {
-                                progress = null;
-                            } else if (type.equals("double")) {
-                                progress = Double.valueOf(encodedProgress);
-                            } else if (type.equals("float")) {
-                                progress = Float.valueOf(encodedProgress);
-                            } else if (type.equals("int")) {
-                                progress = Integer.valueOf(encodedProgress);
-                            } else {
-                                throw new RuntimeException("unknown data type '" + type + "'");
-                            }
-                        } catch (NumberFormatException ex) {
-                            plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
-                                    + taskId + "' in quest '" + questId + "' for player " + uuid
-                                    + " since data is malformed!");
-                            continue;
-                        } catch (RuntimeException ex) {
-                            if (ex.getMessage().startsWith("unknown data type ")) {
-                                plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
-                                        + taskId + "' in quest '" + questId + "' for player " + uuid
-                                        + ": " + ex.getMessage());
-                                continue;
-                            } else {
-                                throw ex;
-                            }
-                        }
+    private Map<UUID, QuestProgressFile> loadCompactChunk(Connection connection, List<UUID> chunk, Map<String, Quest> presentQuests, boolean validateQuests) throws SQLException {
+        Map<UUID, Map<Integer, QuestProgress>> questProgressMaps = new HashMap<>();
+        for (UUID uuid : chunk) {
+            questProgressMaps.put(uuid, new HashMap<>());
+        }
 
-                        QuestProgress linkedQuestProgress = questProgressMap.get(questId);
-                        if (linkedQuestProgress == null) continue;
-                        if (validateQuests) {
-                            if (!presentQuests.containsKey(questId)) continue;
-                            if (presentQuests.get(questId).getTaskById(taskId) == null) continue;
-                        }
-                        TaskProgress questProgress = new TaskProgress(linkedQuestProgress, taskId, progress, uuid, completed);
-                        linkedQuestProgress.addTaskProgress(questProgress);
+        try (PreparedStatement ps = connection.prepareStatement(SqlProgressCodec.withUuidPlaceholders(this.statementProcessor.apply(SELECT_PLAYERS_PROGRESS_V2), chunk.size()))) {
+            for (int i = 0; i < chunk.size(); i++) {
+                ps.setBytes(i + 1, encodeUuid(chunk.get(i)));
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = decodeUuid(rs.getBytes(1));
+                    Map<Integer, QuestProgress> questProgressMap = questProgressMaps.get(uuid);
+                    if (questProgressMap == null) continue;
+
+                    int quest = rs.getInt(2);
+                    QuestProgress questProgress = questProgressMap.get(quest);
+                    if (questProgress == null) {
+                        String questId = questIds.lookup(connection, quest);
+                        if (questId == null) continue;
+                        if (validateQuests && !presentQuests.containsKey(questId)) continue;
+
+                        questProgress = new QuestProgress(context.getPlugin(), questId, rs.getBoolean(4), rs.getBoolean(5), rs.getLong(6), uuid, rs.getBoolean(3));
+                        questProgressMap.put(quest, questProgress);
+                    }
+
+                    int task = rs.getInt(7);
+                    if (rs.wasNull()) continue;
+                    String taskId = taskIds.lookup(connection, task);
+                    if (taskId == null) continue;
+                    if (validateQuests && presentQuests.get(questProgress.getQuestId()).getTaskById(taskId) == null) continue;
+
+                    Object progress;
+                    switch (rs.getByte(9)) {
+                        case PROGRESS_TYPE_INT:
+                            progress = (int) rs.getLong(10);
+                            break;
+                        case PROGRESS_TYPE_LONG:
+                            progress = rs.getLong(10);
+                            break;
+                        case PROGRESS_TYPE_FLOAT:
+                            progress = (float) rs.getDouble(11);
+                            break;
+                        case PROGRESS_TYPE_DOUBLE:
+                            progress = rs.getDouble(11);
+                            break;
+                        default:
+                            progress = null;
                     }
+
+                    TaskProgress taskProgress = new TaskProgress(questProgress, taskId, progress, uuid, rs.getBoolean(8));
+                    questProgress.addTaskProgress(taskProgress);
                 }
             }
-            for (QuestProgress questProgress : questProgressMap.values()) {
+        }
+
+        Map<UUID, QuestProgressFile> questProgressFiles = new HashMap<>();
+        for (Map.Entry<UUID, Map<Integer, QuestProgress>> entry : questProgressMaps.entrySet()) {
+            QuestProgressFile questProgressFile = new QuestProgressFile(entry.getKey(), context.getPlugin());
+            for (QuestProgress questProgress : entry.getValue().values()) {
                 questProgressFile.addQuestProgress(questProgress);
             }
+            questProgressFiles.put(entry.getKey(), questProgressFile);
+        }
+        return questProgressFiles;
+    }
+
+    @Override
+    public @NotNull Collection<UUID> loadAllUUIDs() {
+        if (fault) return Collections.emptyList();
+
+        List<UUID> uuids = new ArrayList<>();
+        boolean compact = compactSchema;
+        try (Connection connection = hikari.getConnection();
+             Statement s = connection.createStatement();
+             ResultSet rs = s.executeQuery(this.statementProcessor.apply(compact ? SELECT_ALL_UUIDS_V2 : SELECT_ALL_UUIDS))) {
+            while (rs.next()) {
+                uuids.add(compact ? decodeUuid(rs.getBytes(1)) : UUID.fromString(rs.getString(1)));
+            }
         } catch (SQLException e) {
-            plugin.getQuestsLogger().severe("Failed to load player: " + uuid + "!");
+            context.getQuestsLogger().severe("Failed to list stored players!");
             e.printStackTrace();
-            return null;
         }
-        return questProgressFile;
+        return uuids;
     }
 
     @Override
@@ -221,71 +380,319 @@ public class MySqlStorageProvider implements StorageProvider {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        if (fault) return;
+        saveProgressFiles(Collections.singletonMap(uuid, questProgressFile));
+    }
+
+    /**
+     * Save many players in a single transaction. The upserts take their updated values from
+     * <code>VALUES()</code> rather than parameters, so that the driver can rewrite each batch into
+     * multi-row statements (<code>rewriteBatchedStatements</code>).
+     */
+    @Override
+    public void saveProgressFiles(@NotNull Map<UUID, QuestProgressFile> questProgressFiles) {
+        Objects.requireNonNull(questProgressFiles, "questProgressFiles cannot be null");
+
+        if (fault || questProgressFiles.isEmpty()) return;
+        // while migrating, both schemas are written so that neither falls behind
+        boolean writeCompact = compactSchema || migrating;
+        boolean writeOriginal = !compactSchema || migrating;
         try (Connection connection = hikari.getConnection()) {
-            try (PreparedStatement writeQuestProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_QUEST_PROGRESS));
-                 PreparedStatement writeTaskProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_TASK_PROGRESS))) {
-
-                List<QuestProgress> questProgressValues = new ArrayList<>(questProgressFile.getAllQuestProgress());
-                for (QuestProgress questProgress : questProgressValues) {
-                    if (!questProgress.isModified()) continue;
-                    
-                    String questId = questProgress.getQuestId();
-                    writeQuestProgress.setString(1, uuid.toString());
-                    writeQuestProgress.setString(2, questProgress.getQuestId());
-                    writeQuestProgress.setBoolean(3, questProgress.isStarted());
-                    writeQuestProgress.setBoolean(4, questProgress.isCompleted());
-                    writeQuestProgress.setBoolean(5, questProgress.isCompletedBefore());
-                    writeQuestProgress.setLong(6, questProgress.getCompletionDate());
-                    writeQuestProgress.setBoolean(7, questProgress.isStarted());
-                    writeQuestProgress.setBoolean(8, questProgress.isCompleted());
-                    writeQuestProgress.setBoolean(9, questProgress.isCompletedBefore());
-                    writeQuestProgress.setLong(10, questProgress.getCompletionDate());
-                    writeQuestProgress.addBatch();
-
-                    for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
-                        String taskId = taskProgress.getTaskId();
-
-                        String encodedProgress;
-                        Object progress = taskProgress.getProgress();
-                        String type;
-                        if (progress == null) {
-                            type = null;
-                            encodedProgress = null;
-                        } else if (progress instanceof Double) {
-                            type = "double";
-                            encodedProgress = String.valueOf(progress);
-                        } else if (progress instanceof Integer) {
-                            type = "int";
-                            encodedProgress = String.valueOf(progress);
-                        } else if (progress instanceof Float) {
-                            type = "float";
-                            encodedProgress = String.valueOf(progress);
-                        } else {
-                            plugin.getQuestsLogger().warning("Cannot store progress for task '"
-                                    + taskId + "' in quest '" + questId + "' for player " + uuid
-                                    + " since type " + progress.getClass().getName() + " cannot be encoded!");
-                            continue;
+            if (writeCompact) {
+                // ids are interned outside of the transaction, as they must outlive it if it is rolled back
+                internIds(connection, questProgressFiles.values());
+            }
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (writeOriginal) {
+                    try (PreparedStatement writeQuestProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_QUEST_PROGRESS));
+                         PreparedStatement writeTaskProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_TASK_PROGRESS))) {
+                        for (Map.Entry<UUID, QuestProgressFile> entry : questProgressFiles.entrySet()) {
+                            codec.addToBatch(entry.getKey(), entry.getValue(), writeQuestProgress, writeTaskProgress);
                         }
-                        writeTaskProgress.setString(1, uuid.toString());
-                        writeTaskProgress.setString(2, questId);
-                        writeTaskProgress.setString(3, taskProgress.getTaskId());
-                        writeTaskProgress.setBoolean(4, taskProgress.isCompleted());
-                        writeTaskProgress.setString(5, encodedProgress);
-                        writeTaskProgress.setString(6, type);
-                        writeTaskProgress.setBoolean(7, taskProgress.isCompleted());
-                        writeTaskProgress.setString(8, encodedProgress);
-                        writeTaskProgress.setString(9, type);
-                        writeTaskProgress.addBatch();
+
+                        writeQuestProgress.executeBatch();
+                        writeTaskProgress.executeBatch();
                     }
                 }
+                if (writeCompact) {
+                    try (PreparedStatement writeQuestProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_QUEST_PROGRESS_V2));
+                         PreparedStatement writeTaskProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_TASK_PROGRESS_V2))) {
+                        for (Map.Entry<UUID, QuestProgressFile> entry : questProgressFiles.entrySet()) {
+                            addToCompactBatch(entry.getKey(), entry.getValue(), writeQuestProgress, writeTaskProgress);
+                        }
 
-                writeQuestProgress.executeBatch();
-                writeTaskProgress.executeBatch();
+                        writeQuestProgress.executeBatch();
+                        writeTaskProgress.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
             }
         } catch (SQLException e) {
-            plugin.getQuestsLogger().severe("Failed to save player: " + uuid + "!");
+            if (questProgressFiles.size() == 1) {
+                throw new StorageException("Failed to save player: " + questProgressFiles.keySet().iterator().next(), e);
+            }
+            throw new StorageException("Failed to save " + questProgressFiles.size() + " players", e);
+        }
+    }
+
+    private void internIds(Connection connection, Collection<QuestProgressFile> questProgressFiles) throws SQLException {
+        for (QuestProgressFile questProgressFile : questProgressFiles) {
+            for (QuestProgress questProgress : questProgressFile.getModifiedQuestProgress()) {
+                questIds.resolve(connection, questProgress.getQuestId());
+                for (TaskProgress taskProgress : questProgress.getModifiedTaskProgress()) {
+                    taskIds.resolve(connection, taskProgress.getTaskId());
+                }
+            }
+        }
+    }
+
+    private void addToCompactBatch(UUID uuid, QuestProgressFile questProgressFile, PreparedStatement writeQuestProgress, PreparedStatement writeTaskProgress) throws SQLException {
+        byte[] encodedUuid = encodeUuid(uuid);
+        for (QuestProgress questProgress : questProgressFile.getModifiedQuestProgress()) {
+            int quest = questIds.resolve(null, questProgress.getQuestId());
+            writeQuestProgress.setBytes(1, encodedUuid);
+            writeQuestProgress.setInt(2, quest);
+            writeQuestProgress.setBoolean(3, questProgress.isStarted());
+            writeQuestProgress.setBoolean(4, questProgress.isCompleted());
+            writeQuestProgress.setBoolean(5, questProgress.isCompletedBefore());
+            writeQuestProgress.setLong(6, questProgress.getCompletionDate());
+            writeQuestProgress.addBatch();
+
+            for (TaskProgress taskProgress : questProgress.getModifiedTaskProgress()) {
+                byte type;
+                switch (taskProgress.getProgressType()) {
+                    case NONE:
+                        type = PROGRESS_TYPE_NONE;
+                        break;
+                    case INTEGER:
+                        type = PROGRESS_TYPE_INT;
+                        break;
+                    case LONG:
+                        type = PROGRESS_TYPE_LONG;
+                        break;
+                    case FLOAT:
+                        type = PROGRESS_TYPE_FLOAT;
+                        break;
+                    case DOUBLE:
+                        type = PROGRESS_TYPE_DOUBLE;
+                        break;
+                    default:
+                        context.getQuestsLogger().warning("Cannot store progress for task '"
+                                + taskProgress.getTaskId() + "' in quest '" + questProgress.getQuestId() + "' for player " + uuid
+                                + " since type " + taskProgress.getProgress().getClass().getName() + " cannot be encoded!");
+                        continue;
+                }
+                writeTaskProgress.setBytes(1, encodedUuid);
+                writeTaskProgress.setInt(2, quest);
+                writeTaskProgress.setInt(3, taskIds.resolve(null, taskProgress.getTaskId()));
+                writeTaskProgress.setBoolean(4, taskProgress.isCompleted());
+                writeTaskProgress.setByte(5, type);
+                if (type == PROGRESS_TYPE_INT || type == PROGRESS_TYPE_LONG) {
+                    writeTaskProgress.setLong(6, taskProgress.getLongProgress());
+                } else {
+                    writeTaskProgress.setNull(6, Types.BIGINT);
+                }
+                if (type == PROGRESS_TYPE_FLOAT || type == PROGRESS_TYPE_DOUBLE) {
+                    writeTaskProgress.setDouble(7, taskProgress.getDoubleProgress());
+                } else {
+                    writeTaskProgress.setNull(7, Types.DOUBLE);
+                }
+                writeTaskProgress.addBatch();
+            }
+        }
+    }
+
+    private static byte[] encodeUuid(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID decodeUuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * @return whether players are stored in the compact schema
+     */
+    public boolean isCompactSchema() {
+        return compactSchema;
+    }
+
+    /**
+     * Copy all players from the original schema to the compact schema while the server is running.
+     * From the start of the migration, saves are written to both schemas; once every player has been
+     * copied, players are loaded from the compact schema. Saves continue to be written to both schemas
+     * until the server is restarted, so that either schema can be configured afterwards. Progress is cleared
+     * from the compact schema at the start of each migration, so one which failed can simply be run again.
+     *
+     * @param saveQueue the queue which saves are written to this provider by
+     * @param progressCallback receives progress messages
+     * @return whether the migration completed
+     */
+    public boolean migrateToCompactSchema(@NotNull SaveQueue saveQueue, @NotNull Consumer<String> progressCallback) {
+        Objects.requireNonNull(saveQueue, "saveQueue cannot be null");
+        Objects.requireNonNull(progressCallback, "progressCallback cannot be null");
+
+        if (fault || compactSchema) {
+            progressCallback.accept("Players are already stored in the compact schema.");
+            return false;
+        }
+        if (!migrationRunning.compareAndSet(false, true)) {
+            progressCallback.accept("A migration is already running.");
+            return false;
+        }
+
+        try (Connection connection = hikari.getConnection()) {
+            createCompactTables(connection);
+
+            // rows left by an earlier migration which failed may be older than the original schema, and would
+            // otherwise be kept over it below; saves are only written to the compact schema once this is done
+            try (Statement s = connection.createStatement()) {
+                s.executeUpdate(this.statementProcessor.apply(CLEAR_QUEST_PROGRESS_V2));
+                s.executeUpdate(this.statementProcessor.apply(CLEAR_TASK_PROGRESS_V2));
+            }
+
+            // anything saved before this point must be written before it is copied
+            migrating = true;
+            if (!saveQueue.flush(30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("timed out waiting for queued saves to be written");
+            }
+
+            progressCallback.accept("Interning quest and task ids...");
+            try (Statement s = connection.createStatement()) {
+                s.executeUpdate(this.statementProcessor.apply(MIGRATE_QUEST_IDS));
+                s.executeUpdate(this.statementProcessor.apply(MIGRATE_TASK_IDS));
+            }
+            questIds.loadAll(connection);
+            taskIds.loadAll(connection);
+
+            int copiedPlayers = 0;
+            String lastUuid = "";
+            try (PreparedStatement selectChunk = connection.prepareStatement(this.statementProcessor.apply(SELECT_MIGRATION_CHUNK));
+                 PreparedStatement migrateQuestProgress = connection.prepareStatement(this.statementProcessor.apply(MIGRATE_QUEST_PROGRESS));
+                 PreparedStatement migrateTaskProgress = connection.prepareStatement(this.statementProcessor.apply(MIGRATE_TASK_PROGRESS))) {
+                while (true) {
+                    String chunkEnd;
+                    selectChunk.setString(1, lastUuid);
+                    selectChunk.setInt(2, MIGRATION_CHUNK_SIZE);
+                    try (ResultSet rs = selectChunk.executeQuery()) {
+                        if (!rs.next()) break;
+                        chunkEnd = rs.getString(1);
+                    }
+
+                    // rows already present were written by a save made during the migration, and are newer
+                    migrateQuestProgress.setString(1, lastUuid);
+                    migrateQuestProgress.setString(2, chunkEnd);
+                    migrateQuestProgress.executeUpdate();
+                    migrateTaskProgress.setString(1, lastUuid);
+                    migrateTaskProgress.setString(2, chunkEnd);
+                    migrateTaskProgress.executeUpdate();
+
+                    lastUuid = chunkEnd;
+                    copiedPlayers += MIGRATION_CHUNK_SIZE;
+                    context.getQuestsLogger().debug("Migrated players up to " + chunkEnd);
+                    if (copiedPlayers % (MIGRATION_CHUNK_SIZE * 20) == 0) {
+                        progressCallback.accept("Copied about " + copiedPlayers + " players...");
+                    }
+                }
+            }
+
+            compactSchema = true;
+            progressCallback.accept("Migration complete. Set 'compact-schema: true' in the database settings before restarting.");
+            return true;
+        } catch (Exception e) {
+            migrating = false;
+            context.getQuestsLogger().severe("Failed to migrate to the compact schema!");
             e.printStackTrace();
+            progressCallback.accept("Migration failed, see the console for details.");
+            return false;
+        } finally {
+            migrationRunning.set(false);
+        }
+    }
+
+    /**
+     * A table of ids interned to integers, cached in memory. Ids are only ever added, so a cached
+     * mapping never becomes stale.
+     */
+    private final class InternTable {
+
+        private final String insert;
+        private final String selectId;
+        private final String selectName;
+        private final String selectAll;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+        private InternTable(String table, String column) {
+            this.insert = statementProcessor.apply("INSERT IGNORE INTO `{prefix}" + table + "` (" + column + ") VALUES (?);");
+            this.selectId = statementProcessor.apply("SELECT id FROM `{prefix}" + table + "` WHERE " + column + "=?;");
+            this.selectName = statementProcessor.apply("SELECT " + column + " FROM `{prefix}" + table + "` WHERE id=?;");
+            this.selectAll = statementProcessor.apply("SELECT id, " + column + " FROM `{prefix}" + table + "`;");
+        }
+
+        private void loadAll(Connection connection) throws SQLException {
+            try (Statement s = connection.createStatement();
+                 ResultSet rs = s.executeQuery(selectAll)) {
+                while (rs.next()) {
+                    cache(rs.getInt(1), rs.getString(2));
+                }
+            }
+        }
+
+        /**
+         * Get the interned value of an id, interning it if necessary.
+         *
+         * @param connection connection to intern with, may only be null if the id is known to be cached
+         */
+        private int resolve(Connection connection, String name) throws SQLException {
+            Integer id = ids.get(name);
+            if (id != null) return id;
+
+            try (PreparedStatement ps = connection.prepareStatement(insert)) {
+                ps.setString(1, name);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(selectId)) {
+                ps.setString(1, name);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("could not intern '" + name + "'");
+                    }
+                    cache(rs.getInt(1), name);
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        private @Nullable String lookup(Connection connection, int id) throws SQLException {
+            String name = names.get(id);
+            if (name != null) return name;
+
+            // interned by another server since this one last looked
+            try (PreparedStatement ps = connection.prepareStatement(selectName)) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) return null;
+                    cache(id, rs.getString(1));
+                    return rs.getString(1);
+                }
+            }
+        }
+
+        private void cache(int id, String name) {
+            ids.put(name, id);
+            names.put(id, name);
         }
     }
 }
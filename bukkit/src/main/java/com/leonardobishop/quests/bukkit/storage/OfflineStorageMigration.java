@@ -0,0 +1,238 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.config.QuestsConfig;
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageContext;
+import com.leonardobishop.quests.common.storage.StorageMigration;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies every player between the YAML and MySQL storage providers without a running server, using the
+ * settings in the plugin's config.yml. The server jar must be on the classpath, for its configuration and
+ * database driver classes:
+ * <pre>
+ * java -cp Quests.jar:server.jar com.leonardobishop.quests.bukkit.storage.OfflineStorageMigration plugins/Quests yaml mysql
+ * </pre>
+ * Quests are not loaded, so progress for quests which no longer exist is copied as well.
+ */
+public final class OfflineStorageMigration {
+
+    private static final int BATCH_SIZE = 250;
+
+    private OfflineStorageMigration() { }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: OfflineStorageMigration <plugin folder> <yaml|mysql> <yaml|mysql>");
+            System.exit(2);
+            return;
+        }
+        File dataFolder = new File(args[0]);
+        String from = args[1].toLowerCase();
+        String to = args[2].toLowerCase();
+        File configFile = new File(dataFolder, "config.yml");
+        if (!configFile.isFile()) {
+            System.err.println("Cannot find " + configFile + ".");
+            System.exit(2);
+            return;
+        }
+        if (from.equals(to)) {
+            System.err.println("Players cannot be copied to the same storage provider.");
+            System.exit(2);
+            return;
+        }
+
+        OfflineStorageContext context = new OfflineStorageContext(YamlConfiguration.loadConfiguration(configFile));
+        StorageProvider source = createStorageProvider(context, dataFolder, from);
+        StorageProvider target = createStorageProvider(context, dataFolder, to);
+        if (source == null || target == null) {
+            System.err.println("Storage providers must be one of: yaml, mysql.");
+            System.exit(2);
+            return;
+        }
+
+        boolean migrated;
+        try {
+            source.init();
+            target.init();
+            int parallelism = Math.max(1, context.getQuestsConfig().getInt("options.storage.saving.parallelism", 2));
+            File checkpointFile = new File(dataFolder, "migration-" + from + "-" + to + ".checkpoint");
+            StorageMigration migration = new StorageMigration(context.getQuestsLogger(), source, target, BATCH_SIZE, parallelism, checkpointFile);
+            migrated = migration.migrate(System.out::println);
+        } finally {
+            source.shutdown();
+            target.shutdown();
+        }
+        if (migrated) {
+            System.out.println("Players have been copied to " + to + ". Set 'provider: \"" + to + "\"' in the storage options before starting the server.");
+        }
+        System.exit(migrated ? 0 : 1);
+    }
+
+    private static StorageProvider createStorageProvider(OfflineStorageContext context, File dataFolder, String name) {
+        switch (name) {
+            case "yaml":
+                return new YamlStorageProvider(context, dataFolder);
+            case "mysql":
+                return new MySqlStorageProvider(context, context.config.getConfigurationSection("options.storage.database-settings"));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The storage context without a server: a console logger, the configuration and no quests.
+     */
+    private static final class OfflineStorageContext implements StorageContext {
+
+        private final YamlConfiguration config;
+        private final QuestsLogger logger = new ConsoleLogger();
+        private final QuestsConfig questsConfig;
+
+        private OfflineStorageContext(YamlConfiguration config) {
+            this.config = config;
+            this.questsConfig = new OfflineQuestsConfig(config);
+        }
+
+        @Override
+        public @NotNull QuestsLogger getQuestsLogger() {
+            return logger;
+        }
+
+        @Override
+        public @NotNull QuestsConfig getQuestsConfig() {
+            return questsConfig;
+        }
+
+        @Override
+        public @NotNull Map<String, Quest> getQuests() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public @Nullable Quests getPlugin() {
+            return null;
+        }
+    }
+
+    private static final class OfflineQuestsConfig implements QuestsConfig {
+
+        private final YamlConfiguration config;
+
+        private OfflineQuestsConfig(YamlConfiguration config) {
+            this.config = config;
+        }
+
+        @Override
+        public boolean loadConfig() {
+            return true;
+        }
+
+        @Override
+        public String getString(String path) {
+            return config.getString(path);
+        }
+
+        @Override
+        public String getString(String path, String def) {
+            return config.getString(path, def);
+        }
+
+        @Override
+        public boolean getBoolean(String path) {
+            return getBoolean(path, false);
+        }
+
+        @Override
+        public boolean getBoolean(String path, boolean def) {
+            // quests are not loaded, so progress cannot be checked against them
+            if (path.equals("options.verify-quest-exists-on-load")) return false;
+
+            return config.getBoolean(path, def);
+        }
+
+        @Override
+        public int getInt(String path) {
+            return config.getInt(path);
+        }
+
+        @Override
+        public int getInt(String path, int def) {
+            return config.getInt(path, def);
+        }
+
+        @Override
+        public List<String> getStringList(String path) {
+            return config.getStringList(path);
+        }
+
+        @Override
+        public List<String> getStringList(String path, List<String> def) {
+            return config.isList(path) ? config.getStringList(path) : def;
+        }
+    }
+
+    private static final class ConsoleLogger implements QuestsLogger {
+
+        private LoggingLevel serverLoggingLevel = LoggingLevel.INFO;
+
+        @Override
+        public LoggingLevel getServerLoggingLevel() {
+            return serverLoggingLevel;
+        }
+
+        @Override
+        public void setServerLoggingLevel(LoggingLevel serverLoggingLevel) {
+            this.serverLoggingLevel = serverLoggingLevel;
+        }
+
+        @Override
+        public void log(String str, LoggingLevel level) {
+            if (serverLoggingLevel.getNumericVerbosity() < level.getNumericVerbosity()) {
+                return;
+            }
+            switch (level) {
+                case DEBUG:
+                    System.out.println("Debug: " + str);
+                    break;
+                case INFO:
+                    System.out.println(str);
+                    break;
+                case ERROR:
+                case WARNING:
+                    System.err.println(str);
+                    break;
+            }
+        }
+
+        @Override
+        public void debug(String str) {
+            log(str, LoggingLevel.DEBUG);
+        }
+
+        @Override
+        public void info(String str) {
+            log(str, LoggingLevel.INFO);
+        }
+
+        @Override
+        public void warning(String str) {
+            log(str, LoggingLevel.WARNING);
+        }
+
+        @Override
+        public void severe(String str) {
+            log(str, LoggingLevel.ERROR);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Helpers for the flat-file storage providers, which write a player's whole file on every save. As saves only
+ * contain modified progress, these providers keep a document of everything stored for recently used players
+ * (including progress for quests which no longer exist) and merge saves into it.
+ */
+final class ProgressDocuments {
+
+    private ProgressDocuments() { }
+
+    /**
+     * @param maximumSize the number of players to keep documents for
+     * @return a thread safe map which evicts the least recently used document
+     */
+    static Map<UUID, QuestProgressFile> newCache(int maximumSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<UUID, QuestProgressFile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, QuestProgressFile> eldest) {
+                return size() > maximumSize;
+            }
+        });
+    }
+
+    /**
+     * Create the progress file handed to the plugin from a document, leaving out quests and tasks which
+     * no longer exist if configured to.
+     */
+    static QuestProgressFile toLoadedFile(StorageContext context, UUID uuid, QuestProgressFile document) {
+        Map<String, Quest> presentQuests = new HashMap<>(context.getQuests());
+        boolean validateQuests = context.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, context.getPlugin());
+        for (QuestProgress storedQuestProgress : document.getAllQuestProgress()) {
+            String id = storedQuestProgress.getQuestId();
+            if (validateQuests && !presentQuests.containsKey(id)) continue;
+
+            QuestProgress questProgress = new QuestProgress(context.getPlugin(), id, storedQuestProgress.isCompleted(), storedQuestProgress.isCompletedBefore(),
+                    storedQuestProgress.getCompletionDate(), uuid, storedQuestProgress.isStarted());
+            for (TaskProgress storedTaskProgress : storedQuestProgress.getTaskProgress()) {
+                String taskid = storedTaskProgress.getTaskId();
+                if (validateQuests && presentQuests.get(id).getTaskById(taskid) == null) continue;
+
+                TaskProgress taskProgress = new TaskProgress(questProgress, taskid, storedTaskProgress.getProgress(), uuid, storedTaskProgress.isCompleted(), false);
+                questProgress.addTaskProgress(taskProgress);
+            }
+
+            questProgressFile.addQuestProgress(questProgress);
+        }
+        return questProgressFile;
+    }
+
+    /**
+     * List the players with a file in a directory.
+     *
+     * @param extensions the extensions, including the dot, of the files to include
+     */
+    static Set<UUID> listPlayers(File directory, String... extensions) {
+        Set<UUID> uuids = new HashSet<>();
+        File[] files = directory.listFiles();
+        if (files == null) return uuids;
+
+        for (File file : files) {
+            String name = file.getName();
+            for (String extension : extensions) {
+                if (!name.endsWith(extension)) continue;
+                try {
+                    uuids.add(UUID.fromString(name.substring(0, name.length() - extension.length())));
+                } catch (IllegalArgumentException ignored) { }
+                break;
+            }
+        }
+        return uuids;
+    }
+
+    /**
+     * Move a fully written temporary file over its target, so that the target is never left partially written.
+     */
+    static void replace(File temporaryFile, File file) throws IOException {
+        try {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Flush the entries of a directory to disk, so that files which have been moved into it survive a crash.
+     * Not every platform allows directories to be opened, in which case this does nothing.
+     */
+    static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) { }
+    }
+}
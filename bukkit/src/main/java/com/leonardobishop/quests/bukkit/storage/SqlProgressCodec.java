@@ -0,0 +1,229 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageContext;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes players in the table layout shared by the SQL storage providers, where progress is
+ * stored as a string alongside the name of its type.
+ */
+final class SqlProgressCodec {
+
+    private static final Pattern DECIMAL_PATTERN = Pattern.compile("[+-]?(NaN|Infinity|(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?)");
+    private static final Object MALFORMED_PROGRESS = new Object();
+    private static final Object UNKNOWN_PROGRESS_TYPE = new Object();
+
+    private final StorageContext context;
+
+    SqlProgressCodec(StorageContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Load a chunk of players with a query selecting, in order, the uuid, quest id, started, completed,
+     * completed before and completion date of each quest, joined with the task id, completed, progress
+     * and data type of each of its tasks. The query must take the uuid of each player in the chunk.
+     *
+     * @return a file for every player in the chunk, which is empty if they have no progress
+     */
+    Map<UUID, QuestProgressFile> loadChunk(Connection connection, String statement, List<UUID> chunk, Map<String, Quest> presentQuests, boolean validateQuests) throws SQLException {
+        Map<String, UUID> uuidsByString = new HashMap<>();
+        Map<UUID, Map<String, QuestProgress>> questProgressMaps = new HashMap<>();
+        for (UUID uuid : chunk) {
+            uuidsByString.put(uuid.toString(), uuid);
+            questProgressMaps.put(uuid, new HashMap<>());
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(statement)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                ps.setString(i + 1, chunk.get(i).toString());
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    UUID uuid = uuidsByString.get(rs.getString(1));
+                    if (uuid == null) continue;
+                    String questId = rs.getString(2);
+                    if (validateQuests && !presentQuests.containsKey(questId)) continue;
+
+                    Map<String, QuestProgress> questProgressMap = questProgressMaps.get(uuid);
+                    QuestProgress questProgress = questProgressMap.get(questId);
+                    if (questProgress == null) {
+                        questProgress = new QuestProgress(context.getPlugin(), questId, rs.getBoolean(4), rs.getBoolean(5), rs.getLong(6), uuid, rs.getBoolean(3));
+                        questProgressMap.put(questId, questProgress);
+                    }
+
+                    String taskId = rs.getString(7);
+                    if (taskId == null) continue;
+                    if (validateQuests && presentQuests.get(questId).getTaskById(taskId) == null) continue;
+
+                    String type = rs.getString(10);
+                    Object progress = decodeProgress(type, rs.getString(9));
+                    if (progress == MALFORMED_PROGRESS) {
+                        context.getQuestsLogger().warning("Cannot retrieve progress for task '"
+                                + taskId + "' in quest '" + questId + "' for player " + uuid
+                                + " since data is malformed!");
+                        continue;
+                    } else if (progress == UNKNOWN_PROGRESS_TYPE) {
+                        context.getQuestsLogger().warning("Cannot retrieve progress for task '"
+                                + taskId + "' in quest '" + questId + "' for player " + uuid
+                                + ": unknown data type '" + type + "'");
+                        continue;
+                    }
+
+                    TaskProgress taskProgress = new TaskProgress(questProgress, taskId, progress, uuid, rs.getBoolean(8));
+                    questProgress.addTaskProgress(taskProgress);
+                }
+            }
+        }
+
+        Map<UUID, QuestProgressFile> questProgressFiles = new HashMap<>();
+        for (Map.Entry<UUID, Map<String, QuestProgress>> entry : questProgressMaps.entrySet()) {
+            QuestProgressFile questProgressFile = new QuestProgressFile(entry.getKey(), context.getPlugin());
+            for (QuestProgress questProgress : entry.getValue().values()) {
+                questProgressFile.addQuestProgress(questProgress);
+            }
+            questProgressFiles.put(entry.getKey(), questProgressFile);
+        }
+        return questProgressFiles;
+    }
+
+    /**
+     * Add the modified progress of a player to batches writing, in order, the uuid, quest id, started,
+     * completed, completed before and completion date of each quest, and the uuid, quest id, task id,
+     * completed, progress and data type of each task.
+     */
+    void addToBatch(UUID uuid, QuestProgressFile questProgressFile, PreparedStatement writeQuestProgress, PreparedStatement writeTaskProgress) throws SQLException {
+        List<QuestProgress> questProgressValues = questProgressFile.getModifiedQuestProgress();
+        for (QuestProgress questProgress : questProgressValues) {
+            String questId = questProgress.getQuestId();
+            writeQuestProgress.setString(1, uuid.toString());
+            writeQuestProgress.setString(2, questProgress.getQuestId());
+            writeQuestProgress.setBoolean(3, questProgress.isStarted());
+            writeQuestProgress.setBoolean(4, questProgress.isCompleted());
+            writeQuestProgress.setBoolean(5, questProgress.isCompletedBefore());
+            writeQuestProgress.setLong(6, questProgress.getCompletionDate());
+            writeQuestProgress.addBatch();
+
+            for (TaskProgress taskProgress : questProgress.getModifiedTaskProgress()) {
+                String taskId = taskProgress.getTaskId();
+
+                String encodedProgress;
+                String type;
+                switch (taskProgress.getProgressType()) {
+                    case NONE:
+                        type = null;
+                        encodedProgress = null;
+                        break;
+                    case DOUBLE:
+                        type = "double";
+                        encodedProgress = String.valueOf(taskProgress.getDoubleProgress());
+                        break;
+                    case INTEGER:
+                        type = "int";
+                        encodedProgress = String.valueOf(taskProgress.getIntProgress());
+                        break;
+                    case LONG:
+                        type = "long";
+                        encodedProgress = String.valueOf(taskProgress.getLongProgress());
+                        break;
+                    case FLOAT:
+                        type = "float";
+                        encodedProgress = String.valueOf((float) taskProgress.getDoubleProgress());
+                        break;
+                    default:
+                        context.getQuestsLogger().warning("Cannot store progress for task '"
+                                + taskId + "' in quest '" + questId + "' for player " + uuid
+                                + " since type " + taskProgress.getProgress().getClass().getName() + " cannot be encoded!");
+                        continue;
+                }
+                writeTaskProgress.setString(1, uuid.toString());
+                writeTaskProgress.setString(2, questId);
+                writeTaskProgress.setString(3, taskProgress.getTaskId());
+                writeTaskProgress.setBoolean(4, taskProgress.isCompleted());
+                writeTaskProgress.setString(5, encodedProgress);
+                writeTaskProgress.setString(6, type);
+                writeTaskProgress.addBatch();
+            }
+        }
+    }
+
+    /**
+     * Replace <code>{uuids}</code> in a statement with a placeholder for each player.
+     */
+    static String withUuidPlaceholders(String statement, int players) {
+        StringBuilder placeholders = new StringBuilder(players * 2);
+        for (int i = 0; i < players; i++) {
+            if (i > 0) placeholders.append(',');
+            placeholders.append('?');
+        }
+        return statement.replace("{uuids}", placeholders);
+    }
+
+    /**
+     * Decode progress stored in the original schema.
+     *
+     * @return the progress, {@link #MALFORMED_PROGRESS} or {@link #UNKNOWN_PROGRESS_TYPE}
+     */
+    private static @Nullable Object decodeProgress(@Nullable String type, @Nullable String encodedProgress) {
+        if (type == null) return null;
+        switch (type) {
+            case "int":
+                Long intProgress = decodeLong(encodedProgress);
+                if (intProgress == null || intProgress != intProgress.intValue()) return MALFORMED_PROGRESS;
+                return intProgress.intValue();
+            case "long":
+                Long longProgress = decodeLong(encodedProgress);
+                return longProgress == null ? MALFORMED_PROGRESS : longProgress;
+            case "float":
+                if (encodedProgress == null || !DECIMAL_PATTERN.matcher(encodedProgress).matches()) return MALFORMED_PROGRESS;
+                return Float.valueOf(encodedProgress);
+            case "double":
+                if (encodedProgress == null || !DECIMAL_PATTERN.matcher(encodedProgress).matches()) return MALFORMED_PROGRESS;
+                return Double.valueOf(encodedProgress);
+            default:
+                return UNKNOWN_PROGRESS_TYPE;
+        }
+    }
+
+    /**
+     * Parse a decimal long, with an optional sign, without throwing for malformed progress.
+     *
+     * @return the value, or null if it is malformed or out of range
+     */
+    static @Nullable Long decodeLong(@Nullable String encoded) {
+        if (encoded == null || encoded.isEmpty()) return null;
+
+        int length = encoded.length();
+        int i = 0;
+        boolean negative = false;
+        char first = encoded.charAt(0);
+        if (first == '-' || first == '+') {
+            if (length == 1) return null;
+            negative = first == '-';
+            i++;
+        }
+        // accumulate negatively, since the magnitude of Long.MIN_VALUE is larger than Long.MAX_VALUE
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = encoded.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return null;
+            if (value < (Long.MIN_VALUE + digit) / 10) return null;
+            value = value * 10 - digit;
+        }
+        if (negative) return value;
+        if (value == Long.MIN_VALUE) return null;
+        return -value;
+    }
+}
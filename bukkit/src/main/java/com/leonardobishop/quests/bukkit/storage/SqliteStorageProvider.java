@@ -0,0 +1,207 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.PluginStorageContext;
+import com.leonardobishop.quests.common.storage.StorageContext;
+import com.leonardobishop.quests.common.storage.StorageException;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Stores players in an embedded SQLite database in the plugin folder, using the same table layout as
+ * {@link MySqlStorageProvider}. The database is used in WAL mode so that loading players does not wait
+ * for saves to be written. The SQLite driver is bundled with the server.
+ */
+public class SqliteStorageProvider implements StorageProvider {
+
+    private static final String CREATE_TABLE_QUEST_PROGRESS =
+            "CREATE TABLE IF NOT EXISTS `quest_progress` (" +
+                    " `uuid`              VARCHAR(36)  NOT NULL," +
+                    " `quest_id`          VARCHAR(50)  NOT NULL," +
+                    " `started`           BOOL         NOT NULL," +
+                    " `completed`         BOOL         NOT NULL," +
+                    " `completed_before`  BOOL         NOT NULL," +
+                    " `completion_date`   BIGINT       NOT NULL," +
+                    " PRIMARY KEY (`uuid`, `quest_id`));";
+    private static final String CREATE_TABLE_TASK_PROGRESS =
+            "CREATE TABLE IF NOT EXISTS `task_progress` (" +
+                    " `uuid`       VARCHAR(36)  NOT NULL," +
+                    " `quest_id`   VARCHAR(50)  NOT NULL," +
+                    " `task_id`    VARCHAR(50)  NOT NULL," +
+                    " `completed`  BOOL         NOT NULL," +
+                    " `progress`   VARCHAR(64)  NULL," +
+                    " `data_type`  VARCHAR(10)  NULL," +
+                    " PRIMARY KEY (`uuid`, `quest_id`, `task_id`));";
+    private static final String SELECT_PLAYERS_PROGRESS =
+            "SELECT q.uuid, q.quest_id, q.started, q.completed, q.completed_before, q.completion_date, t.task_id, t.completed, t.progress, t.data_type" +
+                    " FROM `quest_progress` q" +
+                    " LEFT JOIN `task_progress` t ON t.uuid = q.uuid AND t.quest_id = q.quest_id" +
+                    " WHERE q.uuid IN ({uuids});";
+    private static final String SELECT_ALL_UUIDS =
+            "SELECT DISTINCT uuid FROM `quest_progress`;";
+    private static final String WRITE_PLAYER_QUEST_PROGRESS =
+            "INSERT OR REPLACE INTO `quest_progress` (uuid, quest_id, started, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?);";
+    private static final String WRITE_PLAYER_TASK_PROGRESS =
+            "INSERT OR REPLACE INTO `task_progress` (uuid, quest_id, task_id, completed, progress, data_type) VALUES (?,?,?,?,?,?);";
+    private static final int LOAD_CHUNK_SIZE = 100;
+
+    private final StorageContext context;
+    private final File dataFolder;
+    private final SqlProgressCodec codec;
+    private Connection readConnection;
+    private Connection writeConnection;
+    private boolean fault;
+
+    public SqliteStorageProvider(BukkitQuestsPlugin plugin) {
+        this(new PluginStorageContext(plugin), plugin.getDataFolder());
+    }
+
+    /**
+     * @param dataFolder the folder containing playerdata.db
+     */
+    public SqliteStorageProvider(StorageContext context, File dataFolder) {
+        this.context = context;
+        this.dataFolder = dataFolder;
+        this.codec = new SqlProgressCodec(context);
+    }
+
+    @Override
+    public void init() {
+        File file = new File(dataFolder + File.separator + "playerdata.db");
+        String url = "jdbc:sqlite:" + file.getAbsolutePath();
+
+        try {
+            Class.forName("org.sqlite.JDBC");
+            this.writeConnection = DriverManager.getConnection(url);
+            try (Statement s = writeConnection.createStatement()) {
+                s.execute("PRAGMA journal_mode=WAL;");
+                s.execute("PRAGMA synchronous=NORMAL;");
+                s.execute("PRAGMA busy_timeout=5000;");
+
+                context.getQuestsLogger().debug("Creating default tables");
+                s.execute(CREATE_TABLE_QUEST_PROGRESS);
+                s.execute(CREATE_TABLE_TASK_PROGRESS);
+            }
+            this.readConnection = DriverManager.getConnection(url);
+            try (Statement s = readConnection.createStatement()) {
+                s.execute("PRAGMA busy_timeout=5000;");
+            }
+        } catch (ClassNotFoundException | SQLException e) {
+            e.printStackTrace();
+            fault = true;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (Connection connection : new Connection[]{readConnection, writeConnection}) {
+            if (connection == null) continue;
+            synchronized (connection) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    @Override
+    public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        return loadProgressFiles(Collections.singletonList(uuid)).get(uuid);
+    }
+
+    @Override
+    public @NotNull Map<UUID, QuestProgressFile> loadProgressFiles(@NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids cannot be null");
+
+        if (fault || uuids.isEmpty()) return Collections.emptyMap();
+        Map<String, Quest> presentQuests = new HashMap<>(context.getQuests());
+        boolean validateQuests = context.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+
+        Map<UUID, QuestProgressFile> questProgressFiles = new HashMap<>();
+        List<UUID> remaining = new ArrayList<>(new LinkedHashSet<>(uuids));
+        synchronized (readConnection) {
+            for (int i = 0; i < remaining.size(); i += LOAD_CHUNK_SIZE) {
+                List<UUID> chunk = remaining.subList(i, Math.min(i + LOAD_CHUNK_SIZE, remaining.size()));
+                context.getQuestsLogger().debug("Querying " + chunk.size() + " player(s)");
+                try {
+                    String statement = SqlProgressCodec.withUuidPlaceholders(SELECT_PLAYERS_PROGRESS, chunk.size());
+                    questProgressFiles.putAll(codec.loadChunk(readConnection, statement, chunk, presentQuests, validateQuests));
+                } catch (SQLException e) {
+                    context.getQuestsLogger().severe("Failed to load player(s): " + chunk + "!");
+                    e.printStackTrace();
+                }
+            }
+        }
+        return questProgressFiles;
+    }
+
+    @Override
+    public @NotNull Collection<UUID> loadAllUUIDs() {
+        if (fault) return Collections.emptyList();
+
+        List<UUID> uuids = new ArrayList<>();
+        synchronized (readConnection) {
+            try (Statement s = readConnection.createStatement();
+                 ResultSet rs = s.executeQuery(SELECT_ALL_UUIDS)) {
+                while (rs.next()) {
+                    uuids.add(UUID.fromString(rs.getString(1)));
+                }
+            } catch (SQLException e) {
+                context.getQuestsLogger().severe("Failed to list stored players!");
+                e.printStackTrace();
+            }
+        }
+        return uuids;
+    }
+
+    @Override
+    public void saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        saveProgressFiles(Collections.singletonMap(uuid, questProgressFile));
+    }
+
+    /**
+     * Save many players in a single transaction.
+     */
+    @Override
+    public void saveProgressFiles(@NotNull Map<UUID, QuestProgressFile> questProgressFiles) {
+        Objects.requireNonNull(questProgressFiles, "questProgressFiles cannot be null");
+
+        if (fault || questProgressFiles.isEmpty()) return;
+        synchronized (writeConnection) {
+            try {
+                writeConnection.setAutoCommit(false);
+                try (PreparedStatement writeQuestProgress = writeConnection.prepareStatement(WRITE_PLAYER_QUEST_PROGRESS);
+                     PreparedStatement writeTaskProgress = writeConnection.prepareStatement(WRITE_PLAYER_TASK_PROGRESS)) {
+                    for (Map.Entry<UUID, QuestProgressFile> entry : questProgressFiles.entrySet()) {
+                        codec.addToBatch(entry.getKey(), entry.getValue(), writeQuestProgress, writeTaskProgress);
+                    }
+
+                    writeQuestProgress.executeBatch();
+                    writeTaskProgress.executeBatch();
+                    writeConnection.commit();
+                } catch (SQLException e) {
+                    writeConnection.rollback();
+                    throw e;
+                } finally {
+                    writeConnection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                throw new StorageException("Failed to save " + questProgressFiles.size() + " player(s)", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed number of locks shared between players by their UUID, so that players are only ever read or
+ * written by one thread at a time without keeping a lock for every player seen. Two players may share a
+ * lock, so a thread must not hold the lock of one player while acquiring that of another.
+ * <p>
+ * The time threads spend waiting for a lock held by another thread is recorded.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param stripes the number of locks, rounded up to a power of two
+     */
+    StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Acquire the lock of a player, which must be released with {@link ReentrantLock#unlock()}.
+     *
+     * @return the lock, which is held
+     */
+    ReentrantLock lock(UUID uuid) {
+        int hash = uuid.hashCode();
+        ReentrantLock lock = locks[(hash ^ (hash >>> 16)) & mask];
+        acquisitions.increment();
+        if (lock.tryLock()) {
+            return lock;
+        }
+
+        long start = System.nanoTime();
+        lock.lock();
+        long waited = System.nanoTime() - start;
+        contendedAcquisitions.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return lock;
+    }
+
+    /**
+     * @return a summary of how often and for how long threads have waited for locks
+     */
+    String describeWaits() {
+        long contended = contendedAcquisitions.sum();
+        long averageMicros = contended == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / contended);
+        return contended + " of " + acquisitions.sum() + " lock acquisitions waited"
+                + " (average " + averageMicros + "us, longest " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()) + "ms)";
+    }
+}
@@ -0,0 +1,116 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Writes a {@link QuestProgressFile} as YAML directly, in the same layout {@link YamlStorageProvider}
+ * reads, without building and dumping a {@link org.bukkit.configuration.file.YamlConfiguration}.
+ */
+final class YamlProgressWriter {
+
+    private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z][A-Za-z0-9_-]*");
+    private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
+            "y", "n", "yes", "no", "on", "off", "true", "false", "null"));
+
+    private YamlProgressWriter() { }
+
+    /**
+     * Write a progress file to a temporary file, then move it over the target so that the target is
+     * never left partially written.
+     *
+     * @param questProgressFile the progress to write
+     * @param file the target file
+     * @throws IOException if the file could not be written
+     */
+    static void write(QuestProgressFile questProgressFile, File file) throws IOException {
+        File temporaryFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporaryFile), StandardCharsets.UTF_8))) {
+            write(questProgressFile, writer);
+        }
+
+        ProgressDocuments.replace(temporaryFile, file);
+    }
+
+    static void write(QuestProgressFile questProgressFile, Writer writer) throws IOException {
+        Collection<QuestProgress> questProgressValues = questProgressFile.getAllQuestProgress();
+        if (questProgressValues.isEmpty()) {
+            writer.write("quest-progress: {}\n");
+            return;
+        }
+
+        writer.write("quest-progress:\n");
+        for (QuestProgress questProgress : questProgressValues) {
+            writer.write("  ");
+            writer.write(key(questProgress.getQuestId()));
+            writer.write(":\n    started: ");
+            writer.write(String.valueOf(questProgress.isStarted()));
+            writer.write("\n    completed: ");
+            writer.write(String.valueOf(questProgress.isCompleted()));
+            writer.write("\n    completed-before: ");
+            writer.write(String.valueOf(questProgress.isCompletedBefore()));
+            writer.write("\n    completion-date: ");
+            writer.write(String.valueOf(questProgress.getCompletionDate()));
+            writer.write('\n');
+
+            Collection<TaskProgress> taskProgressValues = questProgress.getTaskProgress();
+            if (taskProgressValues.isEmpty()) continue;
+
+            writer.write("    task-progress:\n");
+            for (TaskProgress taskProgress : taskProgressValues) {
+                writer.write("      ");
+                writer.write(key(taskProgress.getTaskId()));
+                writer.write(":\n        completed: ");
+                writer.write(String.valueOf(taskProgress.isCompleted()));
+                writer.write('\n');
+
+                String progress = value(taskProgress);
+                // null progress is left out, as a YamlConfiguration would when set to null
+                if (progress != null) {
+                    writer.write("        progress: ");
+                    writer.write(progress);
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    private static String key(String key) {
+        if (PLAIN_KEY.matcher(key).matches() && !RESERVED_WORDS.contains(key.toLowerCase(Locale.ROOT))) {
+            return key;
+        }
+        return quote(key);
+    }
+
+    private static String value(TaskProgress taskProgress) {
+        switch (taskProgress.getProgressType()) {
+            case NONE:
+                return null;
+            case INTEGER:
+            case LONG:
+                return String.valueOf(taskProgress.getLongProgress());
+            case FLOAT:
+            case DOUBLE:
+                double progress = taskProgress.getDoubleProgress();
+                if (Double.isNaN(progress)) return ".nan";
+                if (Double.isInfinite(progress)) return progress > 0 ? ".inf" : "-.inf";
+                return String.valueOf(progress);
+            default:
+                Object objectProgress = taskProgress.getProgress();
+                if (objectProgress instanceof Boolean || objectProgress instanceof Number) {
+                    return String.valueOf(objectProgress);
+                }
+                return quote(String.valueOf(objectProgress));
+        }
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
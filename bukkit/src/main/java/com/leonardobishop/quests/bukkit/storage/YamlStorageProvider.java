@@ -4,7 +4,9 @@ import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.PluginStorageContext;
+import com.leonardobishop.quests.common.storage.StorageContext;
+import com.leonardobishop.quests.common.storage.StorageException;
 import com.leonardobishop.quests.common.storage.StorageProvider;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.jetbrains.annotations.NotNull;
@@ -13,135 +15,138 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class YamlStorageProvider implements StorageProvider {
 
-    private final Map<UUID, ReentrantLock> locks = new ConcurrentHashMap<>();
-    private final BukkitQuestsPlugin plugin;
+    private static final int MAX_CACHED_DOCUMENTS = 1000;
+    private static final int LOCK_STRIPES = 64;
+
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    // what is stored on disk for recently loaded or saved players, so that saves do not need to read it back
+    private final Map<UUID, QuestProgressFile> documents = ProgressDocuments.newCache(MAX_CACHED_DOCUMENTS);
+    private final StorageContext context;
+    private final File dataFolder;
 
     public YamlStorageProvider(BukkitQuestsPlugin plugin) {
-        this.plugin = plugin;
+        this(new PluginStorageContext(plugin), plugin.getDataFolder());
     }
 
-    private ReentrantLock lock(UUID uuid) {
-        locks.putIfAbsent(uuid, new ReentrantLock());
-        ReentrantLock lock = locks.get(uuid);
-        lock.lock();
-        return lock;
+    /**
+     * @param dataFolder the folder containing the playerdata folder
+     */
+    public YamlStorageProvider(StorageContext context, File dataFolder) {
+        this.context = context;
+        this.dataFolder = dataFolder;
     }
 
     @Override
     public void init() {
-        File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
+        File directory = new File(dataFolder + File.separator + "playerdata");
         directory.mkdirs();
     }
 
     @Override
     public void shutdown() {
-        // no impl
+        context.getQuestsLogger().debug("YAML storage: " + getStatistics() + ".");
+    }
+
+    @Override
+    public @NotNull String getStatistics() {
+        return locks.describeWaits();
     }
 
     public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
-        ReentrantLock lock = lock(uuid);
-        Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
-        boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
-        
-        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
+        ReentrantLock lock = locks.lock(uuid);
         try {
-            File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
-            if (directory.exists() && directory.isDirectory()) {
-                File file = new File(plugin.getDataFolder() + File.separator + "playerdata" + File.separator + uuid.toString() + ".yml");
-                if (file.exists()) {
-                    YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
-                    plugin.getQuestsLogger().debug("Player " + uuid + " has a valid quest progress file.");
-                    if (data.isConfigurationSection("quest-progress")) { //Same job as "isSet" + it checks if is CfgSection
-                        for (String id : data.getConfigurationSection("quest-progress").getKeys(false)) {
-                            boolean started = data.getBoolean("quest-progress." + id + ".started");
-                            boolean completed = data.getBoolean("quest-progress." + id + ".completed");
-                            boolean completedBefore = data.getBoolean("quest-progress." + id + ".completed-before");
-                            long completionDate = data.getLong("quest-progress." + id + ".completion-date");
-
-                            if (validateQuests && !presentQuests.containsKey(id)) continue;
-
-                            QuestProgress questProgress = new QuestProgress(plugin, id, completed, completedBefore, completionDate, uuid, started, true);
-
-                            if (data.isConfigurationSection("quest-progress." + id + ".task-progress")) {
-                                for (String taskid : data.getConfigurationSection("quest-progress." + id + ".task-progress").getKeys(false)) {
-                                    boolean taskCompleted = data.getBoolean("quest-progress." + id + ".task-progress." + taskid + ".completed");
-                                    Object taskProgression = data.get("quest-progress." + id + ".task-progress." + taskid + ".progress");
-
-                                    if (validateQuests && presentQuests.get(id).getTaskById(taskid) == null) continue;
-
-                                    TaskProgress taskProgress = new TaskProgress(questProgress, taskid, taskProgression, uuid, taskCompleted, false);
-                                    questProgress.addTaskProgress(taskProgress);
-                                }
-                            }
-
-                            questProgressFile.addQuestProgress(questProgress);
-                        }
-                    }
-                } else {
-                    plugin.getQuestsLogger().debug("Player " + uuid + " does not have a quest progress file.");
-                }
-            }
+            QuestProgressFile document = readDocument(uuid);
+            documents.put(uuid, document);
+            return ProgressDocuments.toLoadedFile(context, uuid, document);
         } catch (Exception ex) {
-            plugin.getQuestsLogger().severe("Failed to load player: " + uuid + "!");
+            context.getQuestsLogger().severe("Failed to load player: " + uuid + "!");
             ex.printStackTrace();
             return null;
         } finally {
             lock.unlock();
         }
+    }
 
-        return questProgressFile;
+    @Override
+    public @NotNull Collection<UUID> loadAllUUIDs() {
+        return ProgressDocuments.listPlayers(new File(dataFolder + File.separator + "playerdata"), ".yml");
     }
 
+    /**
+     * Read everything stored for a player, including progress for quests and tasks which no longer exist,
+     * so that it is kept when the file is next written.
+     */
+    QuestProgressFile readDocument(UUID uuid) {
+        QuestProgressFile document = new QuestProgressFile(uuid, context.getPlugin());
+        File file = new File(dataFolder + File.separator + "playerdata" + File.separator + uuid.toString() + ".yml");
+        if (!file.exists()) {
+            context.getQuestsLogger().debug("Player " + uuid + " does not have a quest progress file.");
+            return document;
+        }
+
+        YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
+        context.getQuestsLogger().debug("Player " + uuid + " has a valid quest progress file.");
+        if (data.isConfigurationSection("quest-progress")) { //Same job as "isSet" + it checks if is CfgSection
+            for (String id : data.getConfigurationSection("quest-progress").getKeys(false)) {
+                boolean started = data.getBoolean("quest-progress." + id + ".started");
+                boolean completed = data.getBoolean("quest-progress." + id + ".completed");
+                boolean completedBefore = data.getBoolean("quest-progress." + id + ".completed-before");
+                long completionDate = data.getLong("quest-progress." + id + ".completion-date");
+
+                QuestProgress questProgress = new QuestProgress(context.getPlugin(), id, completed, completedBefore, completionDate, uuid, started);
+
+                if (data.isConfigurationSection("quest-progress." + id + ".task-progress")) {
+                    for (String taskid : data.getConfigurationSection("quest-progress." + id + ".task-progress").getKeys(false)) {
+                        boolean taskCompleted = data.getBoolean("quest-progress." + id + ".task-progress." + taskid + ".completed");
+                        Object taskProgression = data.get("quest-progress." + id + ".task-progress." + taskid + ".progress");
+
+                        TaskProgress taskProgress = new TaskProgress(questProgress, taskid, taskProgression, uuid, taskCompleted, false);
+                        questProgress.addTaskProgress(taskProgress);
+                    }
+                }
+
+                document.addQuestProgress(questProgress);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Merges the modified progress into what is stored for the player and writes the whole file, without
+     * reading it back from disk unless the player was not loaded recently.
+     */
     public void saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        ReentrantLock lock = lock(uuid);
+        ReentrantLock lock = locks.lock(uuid);
         try {
-            List<QuestProgress> questProgressValues = new ArrayList<>(questProgressFile.getAllQuestProgress());
-            File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
+            File directory = new File(dataFolder + File.separator + "playerdata");
             if (!directory.exists() && !directory.isDirectory()) {
                 directory.mkdirs();
             }
 
-            File file = new File(plugin.getDataFolder() + File.separator + "playerdata" + File.separator + uuid.toString() + ".yml");
-            if (!file.exists()) {
-                try {
-                    file.createNewFile();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-
-            YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
-            for (QuestProgress questProgress : questProgressValues) {
-                if (!questProgress.isModified()) continue;
-                data.set("quest-progress." + questProgress.getQuestId() + ".started", questProgress.isStarted());
-                data.set("quest-progress." + questProgress.getQuestId() + ".completed", questProgress.isCompleted());
-                data.set("quest-progress." + questProgress.getQuestId() + ".completed-before", questProgress.isCompletedBefore());
-                data.set("quest-progress." + questProgress.getQuestId() + ".completion-date", questProgress.getCompletionDate());
-                for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
-                    data.set("quest-progress." + questProgress.getQuestId() + ".task-progress." + taskProgress.getTaskId() + ".completed", taskProgress
-                            .isCompleted());
-                    data.set("quest-progress." + questProgress.getQuestId() + ".task-progress." + taskProgress.getTaskId() + ".progress", taskProgress
-                            .getProgress());
-                }
+            File file = new File(dataFolder + File.separator + "playerdata" + File.separator + uuid.toString() + ".yml");
+            QuestProgressFile document = documents.get(uuid);
+            if (document == null) {
+                document = readDocument(uuid);
+                documents.put(uuid, document);
             }
+            document.mergeModified(questProgressFile);
 
-            plugin.getQuestsLogger().debug("Writing player " + uuid + " to disk.");
+            context.getQuestsLogger().debug("Writing player " + uuid + " to disk.");
             try {
-                data.save(file);
-                plugin.getQuestsLogger().debug("Write of player " + uuid + " to disk complete.");
+                YamlProgressWriter.write(document, file);
+                context.getQuestsLogger().debug("Write of player " + uuid + " to disk complete.");
             } catch (IOException e) {
-                plugin.getQuestsLogger().debug("Failed to write player: " + uuid + "!.");
-                e.printStackTrace();
+                // the merged progress is kept, so it is also written with the next save
+                throw new StorageException("Failed to write player: " + uuid, e);
             }
         } finally {
             lock.unlock();
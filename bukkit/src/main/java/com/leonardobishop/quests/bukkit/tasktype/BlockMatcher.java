@@ -0,0 +1,109 @@
+package com.leonardobishop.quests.bukkit.tasktype;
+
+import com.leonardobishop.quests.common.quest.Task;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * An immutable matcher for the blocks configured in a task, either as a single <code>block</code> or
+ * a list of <code>blocks</code>. Blocks may be given a data value (e.g. <code>LOG:2</code>), or a
+ * data value may be configured for all blocks with <code>data</code>.
+ */
+public final class BlockMatcher {
+
+    private final Set<Material> materials;
+    private final Set<Material> anyDataMaterials;
+    private final Map<Material, int[]> dataValues;
+
+    private BlockMatcher(Set<Material> materials, Set<Material> anyDataMaterials, Map<Material, int[]> dataValues) {
+        this.materials = materials;
+        this.anyDataMaterials = anyDataMaterials;
+        this.dataValues = dataValues;
+    }
+
+    /**
+     * Compile the blocks configured in a task. Blocks with an unknown material or a malformed data value
+     * are ignored, as they have already been reported when the task was validated.
+     *
+     * @param task the task
+     * @param dataValues whether data values should be read for each block
+     * @return the compiled matcher
+     */
+    public static @NotNull BlockMatcher compile(@NotNull Task task, boolean dataValues) {
+        Object configBlock = task.getConfigValues().containsKey("block") ? task.getConfigValue("block") : task.getConfigValue("blocks");
+        Object configData = dataValues ? task.getConfigValue("data") : null;
+
+        List<String> checkBlocks = new ArrayList<>();
+        if (configBlock instanceof List) {
+            for (Object block : (List<?>) configBlock) {
+                checkBlocks.add(String.valueOf(block));
+            }
+        } else if (configBlock != null) {
+            checkBlocks.add(String.valueOf(configBlock));
+        }
+
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        Set<Material> anyDataMaterials = EnumSet.noneOf(Material.class);
+        Map<Material, int[]> materialData = new EnumMap<>(Material.class);
+        for (String materialName : checkBlocks) {
+            // LOG:1 LOG:2 LOG should all be supported with this
+            String[] split = dataValues ? materialName.split(":") : new String[]{materialName};
+            Material material = Material.getMaterial(split[0]);
+            if (material == null) continue;
+
+            Integer comparableData = null;
+            if (configData instanceof Integer) {
+                comparableData = (Integer) configData;
+            }
+            if (split.length > 1) {
+                try {
+                    comparableData = Integer.parseInt(split[1]);
+                } catch (NumberFormatException ignored) {
+                    continue;
+                }
+            }
+
+            materials.add(material);
+            if (comparableData == null) {
+                anyDataMaterials.add(material);
+            } else {
+                int[] existing = materialData.get(material);
+                int[] values = existing == null ? new int[1] : Arrays.copyOf(existing, existing.length + 1);
+                values[values.length - 1] = comparableData;
+                materialData.put(material, values);
+            }
+        }
+
+        return new BlockMatcher(materials, anyDataMaterials, materialData);
+    }
+
+    /**
+     * @return immutable {@link Set} of all materials which can be matched
+     */
+    public @NotNull Set<Material> getMaterials() {
+        return Collections.unmodifiableSet(materials);
+    }
+
+    /**
+     * @param block the block to test
+     * @return whether the block matches any of the configured blocks
+     */
+    @SuppressWarnings("deprecation")
+    public boolean matches(@NotNull Block block) {
+        Material blockType = block.getType();
+        if (!materials.contains(blockType)) return false;
+        if (anyDataMaterials.contains(blockType)) return true;
+
+        int[] values = dataValues.get(blockType);
+        int blockData = block.getData();
+        for (int value : values) {
+            if (blockData == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
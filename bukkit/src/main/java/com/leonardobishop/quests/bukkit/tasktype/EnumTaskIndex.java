@@ -0,0 +1,64 @@
+package com.leonardobishop.quests.bukkit.tasktype;
+
+import com.leonardobishop.quests.common.quest.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * An inverted index of the tasks registered to a task type, keyed by the constants (such as a
+ * {@link org.bukkit.Material}) each task can match. This lets a task type skip an event entirely
+ * if no task could possibly match it.
+ *
+ * @param <K> the type of constant tasks are indexed by
+ */
+public final class EnumTaskIndex<K extends Enum<K>> {
+
+    private final Map<K, Set<Task>> tasks;
+
+    public EnumTaskIndex(@NotNull Class<K> keyType) {
+        Objects.requireNonNull(keyType, "keyType cannot be null");
+
+        this.tasks = new EnumMap<>(keyType);
+    }
+
+    /**
+     * Add a task to the index.
+     *
+     * @param task the task
+     * @param keys all constants the task can match
+     */
+    public void index(@NotNull Task task, @NotNull Collection<K> keys) {
+        Objects.requireNonNull(task, "task cannot be null");
+        Objects.requireNonNull(keys, "keys cannot be null");
+
+        for (K key : keys) {
+            tasks.computeIfAbsent(key, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(task);
+        }
+    }
+
+    /**
+     * @param key the constant
+     * @return whether any task can match the constant
+     */
+    public boolean hasTasks(@NotNull K key) {
+        return tasks.containsKey(key);
+    }
+
+    /**
+     * @param task the task
+     * @param key the constant
+     * @return whether the task can match the constant
+     */
+    public boolean canMatch(@NotNull Task task, @NotNull K key) {
+        Set<Task> indexedTasks = tasks.get(key);
+        return indexedTasks != null && indexedTasks.contains(task);
+    }
+
+    /**
+     * Clear the index.
+     */
+    public void clear() {
+        tasks.clear();
+    }
+}
@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -59,34 +58,17 @@ public final class BreedingTaskType extends BukkitTaskType {
                     continue;
                 }
 
-                for (Quest quest : super.getRegisteredQuests()) {
-                    if (qPlayer.hasStartedQuest(quest)) {
-                        QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+                for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+                    Task task = activeTask.getTask();
+                    TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                        for (Task task : quest.getTasksOfType(super.getType())) {
-                            if (!TaskUtils.validateWorld(player, task)) continue;
+                    if (!TaskUtils.validateWorld(player, task)) continue;
 
-                            TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+                    int breedingNeeded = (int) task.getConfigValue("amount");
+                    int breedingProgress = taskProgress.incrementIntProgress(1);
 
-                            if (taskProgress.isCompleted()) {
-                                continue;
-                            }
-
-                            int breedingNeeded = (int) task.getConfigValue("amount");
-                            int breedingProgress;
-
-                            if (taskProgress.getProgress() == null) {
-                                breedingProgress = 0;
-                            } else {
-                                breedingProgress = (int) taskProgress.getProgress();
-                            }
-
-                            taskProgress.setProgress(breedingProgress + 1);
-
-                            if (((int) taskProgress.getProgress()) >= breedingNeeded) {
-                                taskProgress.setCompleted(true);
-                            }
-                        }
+                    if (breedingProgress >= breedingNeeded) {
+                        taskProgress.setCompleted(true);
                     }
                 }
             }
@@ -2,25 +2,30 @@ package com.leonardobishop.quests.bukkit.tasktype.type;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.tasktype.EnumTaskIndex;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerBucketEvent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
 public abstract class BucketInteractionTaskType extends BukkitTaskType {
 
+    private final EnumTaskIndex<Material> bucketIndex = new EnumTaskIndex<>(Material.class);
+
     public BucketInteractionTaskType(@NotNull String type, String author, String description) {
         super(type, author, description);
     }
@@ -44,49 +49,58 @@ public abstract class BucketInteractionTaskType extends BukkitTaskType {
         return problems;
     }
 
+    @Override
+    public void onReady() {
+        bucketIndex.clear();
+        for (Quest quest : super.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(super.getType())) {
+                CompiledTask compiledTask = task.getCompiledConfig();
+                if (compiledTask.bucket != null) {
+                    bucketIndex.index(task, Collections.singleton(compiledTask.bucket));
+                }
+            }
+        }
+    }
+
+    @Override
+    public @Nullable Object compile(@NotNull Task task) {
+        return new CompiledTask(task);
+    }
+
     public void onBucket(Player player, Material bucket, BukkitQuestsPlugin plugin) {
         if (!player.isOnline() || player.hasMetadata("NPC") || bucket == null) return;
+        if (!bucketIndex.hasTasks(bucket)) return;
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
 
         if (qPlayer == null) return;
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(player, task)) continue;
+            if (!bucketIndex.canMatch(task, bucket)) continue;
+            if (!TaskUtils.validateWorld(player, task)) continue;
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            int amount = ((CompiledTask) task.getCompiledConfig()).amount;
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
+            int progress = taskProgress.incrementIntProgress(1);
 
-                    int amount = (int) task.getConfigValue("amount");
-                    Object configBucket = task.getConfigValue("bucket");
-                    Material material = Material.getMaterial((String) configBucket);
-
-                    if (bucket != material) {
-                        continue;
-                    }
+            if (progress >= amount) {
+                taskProgress.setIntProgress(amount);
+                taskProgress.setCompleted(true);
+            }
+        }
+    }
 
-                    int progress;
-                    if (taskProgress.getProgress() == null) {
-                        progress = 0;
-                    } else {
-                        progress = (int) taskProgress.getProgress();
-                    }
+    private static final class CompiledTask {
 
-                    taskProgress.setProgress(progress + 1);
+        private final Material bucket;
+        private final int amount;
 
-                    if ((int) taskProgress.getProgress() >= amount) {
-                        taskProgress.setProgress(amount);
-                        taskProgress.setCompleted(true);
-                    }
-                }
-            }
+        private CompiledTask(Task task) {
+            this.bucket = Material.getMaterial(String.valueOf(task.getConfigValue("bucket")));
+            this.amount = (int) task.getConfigValue("amount");
         }
     }
 
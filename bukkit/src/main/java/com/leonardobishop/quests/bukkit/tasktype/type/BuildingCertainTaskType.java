@@ -1,22 +1,24 @@
 package com.leonardobishop.quests.bukkit.tasktype.type;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.tasktype.BlockMatcher;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.tasktype.EnumTaskIndex;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,6 +27,7 @@ import java.util.List;
 public final class BuildingCertainTaskType extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
+    private final EnumTaskIndex<Material> blockIndex = new EnumTaskIndex<>(Material.class);
 
     public BuildingCertainTaskType(BukkitQuestsPlugin plugin) {
         super("blockplacecertain", TaskUtils.TASK_ATTRIBUTION_STRING, "Place a set amount of a specific block.");
@@ -68,32 +71,44 @@ public final class BuildingCertainTaskType extends BukkitTaskType {
         return problems;
     }
 
+    @Override
+    public void onReady() {
+        blockIndex.clear();
+        for (Quest quest : super.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(super.getType())) {
+                CompiledTask compiledTask = task.getCompiledConfig();
+                blockIndex.index(task, compiledTask.blockMatcher.getMaterials());
+            }
+        }
+    }
+
+    @Override
+    public @Nullable Object compile(@NotNull Task task) {
+        return new CompiledTask(task);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPlace(BlockPlaceEvent event) {
         if (event.getPlayer().hasMetadata("NPC")) return;
 
+        Material blockType = event.getBlock().getType();
+        if (!blockIndex.hasTasks(blockType)) return;
+
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(event.getPlayer().getUniqueId());
         if (qPlayer == null) {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(event.getPlayer(), task)) continue;
-
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
+            CompiledTask compiledTask = task.getCompiledConfig();
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
+            if (!blockIndex.canMatch(task, blockType)) continue;
+            if (!TaskUtils.validateWorld(event.getPlayer(), task)) continue;
 
-                    if (matchBlock(task, event.getBlock())) {
-                        increment(task, taskProgress, 1);
-                    }
-                }
+            if (compiledTask.blockMatcher.matches(event.getBlock())) {
+                increment(compiledTask, taskProgress, 1);
             }
         }
     }
@@ -103,85 +118,46 @@ public final class BuildingCertainTaskType extends BukkitTaskType {
     public void onBlockBreak(BlockBreakEvent event) {
         if (event.getPlayer().hasMetadata("NPC")) return;
 
+        Material blockType = event.getBlock().getType();
+        if (!blockIndex.hasTasks(blockType)) return;
+
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(event.getPlayer().getUniqueId());
         if (qPlayer == null) {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
+            CompiledTask compiledTask = task.getCompiledConfig();
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-
-                    if (task.getConfigValue("reverse-if-placed") != null && ((boolean) task.getConfigValue("reverse-if-placed"))) {
-                        if (matchBlock(task, event.getBlock())) {
-                            increment(task, taskProgress, -1);
-                        }
-                    }
-                }
+            if (!blockIndex.canMatch(task, blockType)) continue;
+            if (compiledTask.reverseIfPlaced && compiledTask.blockMatcher.matches(event.getBlock())) {
+                increment(compiledTask, taskProgress, -1);
             }
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private boolean matchBlock(Task task, Block block) {
-        Material material;
-
-        Object configBlock = task.getConfigValues().containsKey("block") ? task.getConfigValue("block") : task.getConfigValue("blocks");
-        Object configData = task.getConfigValue("data");
-        Object configSimilarBlocks = task.getConfigValue("use-similar-blocks");
-
-        List<String> checkBlocks = new ArrayList<>();
-        if (configBlock instanceof List) {
-            checkBlocks.addAll((List) configBlock);
-        } else {
-            checkBlocks.add(String.valueOf(configBlock));
-        }
-
-        for (String materialName : checkBlocks) {
-            // LOG:1 LOG:2 LOG should all be supported with this
-            String[] split = materialName.split(":");
-            int comparableData = 0;
-            if (configData != null) {
-                comparableData = (int) configData;
-            }
-            if (split.length > 1) {
-                comparableData = Integer.parseInt(split[1]);
-            }
-
-            material = Material.getMaterial(String.valueOf(split[0]));
-            Material blockType = block.getType();
+    private void increment(CompiledTask compiledTask, TaskProgress taskProgress, int amount) {
+        int brokenBlocksNeeded = compiledTask.amount;
 
-            short blockData = block.getData();
+        int progressBlocksBroken = taskProgress.incrementIntProgress(amount);
 
-            if (blockType == material) {
-                if (((split.length == 1 && configData == null) || ((int) blockData) == comparableData))
-                    return true;
-            }
+        if (progressBlocksBroken >= brokenBlocksNeeded) {
+            taskProgress.setCompleted(true);
         }
-        return false;
     }
 
-    private void increment(Task task, TaskProgress taskProgress, int amount) {
-        int brokenBlocksNeeded = (int) task.getConfigValue("amount");
+    private static final class CompiledTask {
 
-        int progressBlocksBroken;
-        if (taskProgress.getProgress() == null) {
-            progressBlocksBroken = 0;
-        } else {
-            progressBlocksBroken = (int) taskProgress.getProgress();
-        }
+        private final BlockMatcher blockMatcher;
+        private final int amount;
+        private final boolean reverseIfPlaced;
 
-        taskProgress.setProgress(progressBlocksBroken + amount);
-
-        if (((int) taskProgress.getProgress()) >= brokenBlocksNeeded) {
-            taskProgress.setCompleted(true);
+        private CompiledTask(Task task) {
+            this.blockMatcher = BlockMatcher.compile(task, true);
+            this.amount = (int) task.getConfigValue("amount");
+            this.reverseIfPlaced = (boolean) task.getConfigValue("reverse-if-placed", false);
         }
     }
 
@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -47,44 +46,36 @@ public final class CommandTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(player, task)) continue;
+            if (!TaskUtils.validateWorld(player, task)) continue;
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            Object configCommand = task.getConfigValue("command");
+            Object configIgnoreCase = task.getConfigValue("ignore-case");
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-                    Object configCommand = task.getConfigValue("command");
-                    Object configIgnoreCase = task.getConfigValue("ignore-case");
-
-                    List<String> commands = new ArrayList<>();
-                    if (configCommand instanceof List) {
-                        commands.addAll((List) configCommand);
-                    } else {
-                        commands.add(String.valueOf(configCommand));
-                    }
+            List<String> commands = new ArrayList<>();
+            if (configCommand instanceof List) {
+                commands.addAll((List) configCommand);
+            } else {
+                commands.add(String.valueOf(configCommand));
+            }
 
-                    boolean ignoreCasing = false;
-                    if (configIgnoreCase != null) {
-                        ignoreCasing = (boolean) task.getConfigValue("ignore-case");
-                    }
-                    String message = e.getMessage();
-                    if (message.length() >= 1) {
-                        message = message.substring(1);
-                    }
+            boolean ignoreCasing = false;
+            if (configIgnoreCase != null) {
+                ignoreCasing = (boolean) task.getConfigValue("ignore-case");
+            }
+            String message = e.getMessage();
+            if (message.length() >= 1) {
+                message = message.substring(1);
+            }
 
-                    for (String command : commands) {
-                        if (ignoreCasing && command.equalsIgnoreCase(message)) {
-                            taskProgress.setCompleted(true);
-                        } else if (!ignoreCasing && command.equals(message)) {
-                            taskProgress.setCompleted(true);
-                        }
-                    }
+            for (String command : commands) {
+                if (ignoreCasing && command.equalsIgnoreCase(message)) {
+                    taskProgress.setCompleted(true);
+                } else if (!ignoreCasing && command.equals(message)) {
+                    taskProgress.setCompleted(true);
                 }
             }
         }
@@ -9,10 +9,10 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
@@ -72,60 +72,45 @@ public final class CraftingTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(player, task)) continue;
-
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-
-                    if (taskProgress.isCompleted()) {
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Quest quest = activeTask.getQuest();
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
+
+            if (!TaskUtils.validateWorld(player, task)) continue;
+
+            Material material;
+            int amount = (int) task.getConfigValue("amount");
+            Object configBlock = task.getConfigValue("item");
+            Object configData = task.getConfigValue("data");
+
+            QuestItem qi;
+            if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
+                if (configBlock instanceof ConfigurationSection) {
+                    qi = plugin.getConfiguredQuestItem("", (ConfigurationSection) configBlock);
+                } else {
+                    material = Material.getMaterial(String.valueOf(configBlock));
+                    ItemStack is;
+                    if (material == null) {
                         continue;
                     }
-
-                    Material material;
-                    int amount = (int) task.getConfigValue("amount");
-                    Object configBlock = task.getConfigValue("item");
-                    Object configData = task.getConfigValue("data");
-
-                    QuestItem qi;
-                    if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
-                        if (configBlock instanceof ConfigurationSection) {
-                            qi = plugin.getConfiguredQuestItem("", (ConfigurationSection) configBlock);
-                        } else {
-                            material = Material.getMaterial(String.valueOf(configBlock));
-                            ItemStack is;
-                            if (material == null) {
-                                continue;
-                            }
-                            if (configData != null) {
-                                is = new ItemStack(material, 1, ((Integer) configData).shortValue());
-                            } else {
-                                is = new ItemStack(material, 1);
-                            }
-                            qi = new ParsedQuestItem("parsed", null, is);
-                        }
-                        fixedQuestItemCache.put(quest.getId(), task.getId(), qi);
-                    }
-
-                    if (!qi.compareItemStack(clickedItem)) continue;
-
-                    int progress;
-                    if (taskProgress.getProgress() == null) {
-                        progress = 0;
+                    if (configData != null) {
+                        is = new ItemStack(material, 1, ((Integer) configData).shortValue());
                     } else {
-                        progress = (int) taskProgress.getProgress();
+                        is = new ItemStack(material, 1);
                     }
+                    qi = new ParsedQuestItem("parsed", null, is);
+                }
+                fixedQuestItemCache.put(quest.getId(), task.getId(), qi);
+            }
 
-                    taskProgress.setProgress(progress + clickedAmount);
+            if (!qi.compareItemStack(clickedItem)) continue;
 
-                    if ((int) taskProgress.getProgress() >= amount) {
-                        taskProgress.setProgress(amount);
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            int progress = taskProgress.incrementIntProgress(clickedAmount);
+
+            if (progress >= amount) {
+                taskProgress.setIntProgress(amount);
+                taskProgress.setCompleted(true);
             }
         }
     }
@@ -5,10 +5,10 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -74,34 +74,25 @@ public final class DistancefromTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            int x = (int) task.getConfigValue("x");
+            int y = (int) task.getConfigValue("y");
+            int z = (int) task.getConfigValue("z");
+            String worldString = (String) task.getConfigValue("world");
+            int distance = (int) task.getConfigValue("distance");
+            int distanceSquared = distance * distance;
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-
-                    int x = (int) task.getConfigValue("x");
-                    int y = (int) task.getConfigValue("y");
-                    int z = (int) task.getConfigValue("z");
-                    String worldString = (String) task.getConfigValue("world");
-                    int distance = (int) task.getConfigValue("distance");
-                    int distanceSquared = distance * distance;
-
-                    World world = Bukkit.getWorld(worldString);
-                    if (world == null) {
-                        continue;
-                    }
+            World world = Bukkit.getWorld(worldString);
+            if (world == null) {
+                continue;
+            }
 
-                    Location location = new Location(world, x, y, z);
-                    if (player.getWorld().equals(world) && player.getLocation().distanceSquared(location) > distanceSquared) {
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            Location location = new Location(world, x, y, z);
+            if (player.getWorld().equals(world) && player.getLocation().distanceSquared(location) > distanceSquared) {
+                taskProgress.setCompleted(true);
             }
         }
     }
@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerExpChangeEvent;
@@ -45,35 +44,20 @@ public final class ExpEarnTaskType extends BukkitTaskType {
         }
 
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-                
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(e.getPlayer(), task)) continue;
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-                    
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-                    int amount = e.getAmount();
-                    int expNeeded = (int) task.getConfigValue("amount");
-                    
-                    int progressExp;
-                    if (taskProgress.getProgress() == null) {
-                        progressExp = 0;
-                    } else {
-                        progressExp = (int) taskProgress.getProgress();
-                    }
-                    
-                    taskProgress.setProgress(progressExp + amount);
-                    
-                    if (((int) taskProgress.getProgress()) >= expNeeded) {
-                        taskProgress.setCompleted(true);
-                    }                    
-                }
-            }
-        }        
+            if (!TaskUtils.validateWorld(e.getPlayer(), task)) continue;
+
+            int amount = e.getAmount();
+            int expNeeded = (int) task.getConfigValue("amount");
+
+            int progressExp = taskProgress.incrementIntProgress(amount);
+
+            if (progressExp >= expNeeded) {
+                taskProgress.setCompleted(true);
+            }                    
+        }
     }
 }
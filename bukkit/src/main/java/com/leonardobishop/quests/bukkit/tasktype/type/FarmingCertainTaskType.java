@@ -1,22 +1,24 @@
 package com.leonardobishop.quests.bukkit.tasktype.type;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.tasktype.BlockMatcher;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.tasktype.EnumTaskIndex;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
 import org.bukkit.block.data.Ageable;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -25,6 +27,7 @@ import java.util.List;
 public final class FarmingCertainTaskType extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
+    private final EnumTaskIndex<Material> blockIndex = new EnumTaskIndex<>(Material.class);
 
     public FarmingCertainTaskType(BukkitQuestsPlugin plugin) {
         super("farmingcertain", TaskUtils.TASK_ATTRIBUTION_STRING, "Break a set amount of a certain crop.");
@@ -65,9 +68,28 @@ public final class FarmingCertainTaskType extends BukkitTaskType {
         return problems;
     }
 
+    @Override
+    public void onReady() {
+        blockIndex.clear();
+        for (Quest quest : super.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(super.getType())) {
+                CompiledTask compiledTask = task.getCompiledConfig();
+                blockIndex.index(task, compiledTask.blockMatcher.getMaterials());
+            }
+        }
+    }
+
+    @Override
+    public @Nullable Object compile(@NotNull Task task) {
+        return new CompiledTask(task);
+    }
+
     @SuppressWarnings("deprecation")
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
+        Material blockType = event.getBlock().getType();
+        if (!blockIndex.hasTasks(blockType)) return;
+
         if (!(event.getBlock().getState().getBlockData() instanceof Ageable)) {
             return;
         }
@@ -82,62 +104,35 @@ public final class FarmingCertainTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(event.getPlayer(), task)) continue;
-
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
+            CompiledTask compiledTask = task.getCompiledConfig();
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
+            if (!blockIndex.canMatch(task, blockType)) continue;
+            if (!TaskUtils.validateWorld(event.getPlayer(), task)) continue;
 
-                    if (matchBlock(task, event.getBlock())) {
-                        int brokenBlocksNeeded = (int) task.getConfigValue("amount");
+            if (compiledTask.blockMatcher.matches(event.getBlock())) {
+                int brokenBlocksNeeded = compiledTask.amount;
 
-                        int progressBlocksBroken;
-                        if (taskProgress.getProgress() == null) {
-                            progressBlocksBroken = 0;
-                        } else {
-                            progressBlocksBroken = (int) taskProgress.getProgress();
-                        }
+                int progressBlocksBroken = taskProgress.incrementIntProgress(1);
 
-                        taskProgress.setProgress(progressBlocksBroken + 1);
-
-                        if (((int) taskProgress.getProgress()) >= brokenBlocksNeeded) {
-                            taskProgress.setCompleted(true);
-                        }
-                    }
+                if (progressBlocksBroken >= brokenBlocksNeeded) {
+                    taskProgress.setCompleted(true);
                 }
             }
         }
     }
 
-    private boolean matchBlock(Task task, Block block) {
-        Material material;
+    private static final class CompiledTask {
 
-        Object configBlock = task.getConfigValues().containsKey("block") ? task.getConfigValue("block") : task.getConfigValue("blocks");
-        Object configData = task.getConfigValue("data");
+        private final BlockMatcher blockMatcher;
+        private final int amount;
 
-        List<String> checkBlocks = new ArrayList<>();
-        if (configBlock instanceof List) {
-            checkBlocks.addAll((List) configBlock);
-        } else {
-            checkBlocks.add(String.valueOf(configBlock));
-        }
-
-        for (String materialName : checkBlocks) {
-            material = Material.getMaterial(String.valueOf(materialName));
-            Material blockType = block.getType();
-
-            if (blockType == material) {
-                return true;
-            }
+        private CompiledTask(Task task) {
+            this.blockMatcher = BlockMatcher.compile(task, false);
+            this.amount = (int) task.getConfigValue("amount");
         }
-        return false;
     }
 
 }
@@ -6,10 +6,9 @@ import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Material;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
@@ -18,6 +17,7 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerFishEvent;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -47,6 +47,11 @@ public final class FishingCertainTaskType extends BukkitTaskType {
         return problems;
     }
 
+    @Override
+    public @Nullable Object compile(@NotNull Task task) {
+        return new CompiledTask(task);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onFishCaught(PlayerFishEvent event) {
         if (event.getPlayer().hasMetadata("NPC")) return;
@@ -65,53 +70,45 @@ public final class FishingCertainTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(player, task)) continue;
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            if (!TaskUtils.validateWorld(player, task)) continue;
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
+            CompiledTask compiledTask = task.getCompiledConfig();
+            int catchesNeeded = compiledTask.amount;
 
-                    int catchesNeeded = (int) task.getConfigValue("amount");
-                    String configItem = (String) task.getConfigValue("item");
-                    Object configData = task.getConfigValue("data");
+            if (compiledTask.item == null || !caught.getItemStack().isSimilar(compiledTask.item)) {
+                continue;
+            }
 
-                    ItemStack is;
-                    Material material = Material.getMaterial(String.valueOf(configItem));
+            int progressCatches = taskProgress.incrementIntProgress(1);
 
-                    if (material == null) {
-                        continue;
-                    }
-                    if (configData != null) {
-                        is = new ItemStack(material, 1, ((Integer) configData).shortValue());
-                    } else {
-                        is = new ItemStack(material, 1);
-                    }
+            if (progressCatches >= catchesNeeded) {
+                taskProgress.setCompleted(true);
+            }
+        }
+    }
 
-                    if (!caught.getItemStack().isSimilar(is)) {
-                        continue;
-                    }
+    private static final class CompiledTask {
 
-                    int progressCatches;
-                    if (taskProgress.getProgress() == null) {
-                        progressCatches = 0;
-                    } else {
-                        progressCatches = (int) taskProgress.getProgress();
-                    }
+        private final ItemStack item;
+        private final int amount;
 
-                    taskProgress.setProgress(progressCatches + 1);
+        @SuppressWarnings("deprecation")
+        private CompiledTask(Task task) {
+            Material material = Material.getMaterial(String.valueOf(task.getConfigValue("item")));
+            Object configData = task.getConfigValue("data");
 
-                    if (((int) taskProgress.getProgress()) >= catchesNeeded) {
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            if (material == null) {
+                this.item = null;
+            } else if (configData != null) {
+                this.item = new ItemStack(material, 1, ((Integer) configData).shortValue());
+            } else {
+                this.item = new ItemStack(material, 1);
             }
+            this.amount = (int) task.getConfigValue("amount");
         }
     }
 
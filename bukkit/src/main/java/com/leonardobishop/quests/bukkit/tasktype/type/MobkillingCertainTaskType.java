@@ -2,15 +2,16 @@ package com.leonardobishop.quests.bukkit.tasktype.type;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.tasktype.EnumTaskIndex;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
@@ -18,14 +19,17 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
 public final class MobkillingCertainTaskType extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
+    private final EnumTaskIndex<EntityType> entityIndex = new EnumTaskIndex<>(EntityType.class);
 
     public MobkillingCertainTaskType(BukkitQuestsPlugin plugin) {
         super("mobkillingcertain", TaskUtils.TASK_ATTRIBUTION_STRING, "Kill a set amount of a specific entity type.");
@@ -48,6 +52,24 @@ public final class MobkillingCertainTaskType extends BukkitTaskType {
         return problems;
     }
 
+    @Override
+    public void onReady() {
+        entityIndex.clear();
+        for (Quest quest : super.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(super.getType())) {
+                CompiledTask compiledTask = task.getCompiledConfig();
+                if (compiledTask.entity != null) {
+                    entityIndex.index(task, Collections.singleton(compiledTask.entity));
+                }
+            }
+        }
+    }
+
+    @Override
+    public @Nullable Object compile(@NotNull Task task) {
+        return new CompiledTask(task);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onMobKill(EntityDeathEvent event) {
         Player killer = event.getEntity().getKiller();
@@ -63,75 +85,74 @@ public final class MobkillingCertainTaskType extends BukkitTaskType {
 
         if (killer.hasMetadata("NPC")) return;
 
+        if (!entityIndex.hasTasks(mob.getType())) return;
+
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(killer.getUniqueId());
         if (qPlayer == null) {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(killer, task)) continue;
+            if (!entityIndex.canMatch(task, mob.getType())) continue;
+            if (!TaskUtils.validateWorld(killer, task)) continue;
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            CompiledTask compiledTask = task.getCompiledConfig();
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
+            if (compiledTask.names != null) {
+                boolean validName = false;
+                for (String name : compiledTask.names) {
+                    if (mob.getCustomName() != null && !mob.getCustomName().equals(name)) {
+                        validName = true;
+                        break;
                     }
+                }
 
-                    String configEntity = (String) task.getConfigValue("mob");
-
-                    EntityType entity;
-                    try {
-                        entity = EntityType.valueOf(configEntity);
-                    } catch (IllegalArgumentException ex) {
-                        continue;
-                    }
+                if (!validName) continue;
+            }
 
-                    Object configName = task.getConfigValues().containsKey("name") ? task.getConfigValue("name") : task.getConfigValue("names");
-
-                    if (configName != null) {
-                        List<String> configNames = new ArrayList<>();
-                        if (configName instanceof List) {
-                            configNames.addAll((List) configName);
-                        } else {
-                            configNames.add(String.valueOf(configName));
-                        }
-
-                        boolean validName = false;
-                        for (String name : configNames) {
-                            name = Chat.color(name);
-                            if (mob.getCustomName() != null && !mob.getCustomName().equals(name)) {
-                                validName = true;
-                                break;
-                            }
-                        }
-
-                        if (!validName) continue;
-                    }
+            int mobKillsNeeded = compiledTask.amount;
 
-                    if (mob.getType() != entity) {
-                        continue;
-                    }
+            int progressKills = taskProgress.incrementIntProgress(1);
 
-                    int mobKillsNeeded = (int) task.getConfigValue("amount");
+            if (progressKills >= mobKillsNeeded) {
+                taskProgress.setCompleted(true);
+            }
+        }
+    }
 
-                    int progressKills;
-                    if (taskProgress.getProgress() == null) {
-                        progressKills = 0;
-                    } else {
-                        progressKills = (int) taskProgress.getProgress();
-                    }
+    private static final class CompiledTask {
 
-                    taskProgress.setProgress(progressKills + 1);
+        private final EntityType entity;
+        private final String[] names;
+        private final int amount;
 
-                    if (((int) taskProgress.getProgress()) >= mobKillsNeeded) {
-                        taskProgress.setCompleted(true);
+        private CompiledTask(Task task) {
+            EntityType entity;
+            try {
+                entity = EntityType.valueOf(String.valueOf(task.getConfigValue("mob")));
+            } catch (IllegalArgumentException ex) {
+                entity = null;
+            }
+            this.entity = entity;
+
+            Object configName = task.getConfigValues().containsKey("name") ? task.getConfigValue("name") : task.getConfigValue("names");
+            if (configName != null) {
+                List<String> configNames = new ArrayList<>();
+                if (configName instanceof List) {
+                    for (Object name : (List<?>) configName) {
+                        configNames.add(Chat.color(String.valueOf(name)));
                     }
+                } else {
+                    configNames.add(Chat.color(String.valueOf(configName)));
                 }
+                this.names = configNames.toArray(new String[0]);
+            } else {
+                this.names = null;
             }
+            this.amount = (int) task.getConfigValue("amount");
         }
     }
 
@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.entity.Animals;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Monster;
@@ -60,49 +59,33 @@ public final class MobkillingTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(killer, task)) continue;
+            if (!TaskUtils.validateWorld(killer, task)) continue;
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-
-                    boolean hostilitySpecified = false;
-                    boolean hostile = false;
-                    if (task.getConfigValue("hostile") != null) {
-                        hostilitySpecified = true;
-                        hostile = (boolean) task.getConfigValue("hostile");
-                    }
-
-                    if (hostilitySpecified) {
-                        if (!hostile && !(mob instanceof Animals)) {
-                            continue;
-                        } else if (hostile && !(mob instanceof Monster)) {
-                            continue;
-                        }
-                    }
+            boolean hostilitySpecified = false;
+            boolean hostile = false;
+            if (task.getConfigValue("hostile") != null) {
+                hostilitySpecified = true;
+                hostile = (boolean) task.getConfigValue("hostile");
+            }
 
-                    int mobKillsNeeded = (int) task.getConfigValue("amount");
+            if (hostilitySpecified) {
+                if (!hostile && !(mob instanceof Animals)) {
+                    continue;
+                } else if (hostile && !(mob instanceof Monster)) {
+                    continue;
+                }
+            }
 
-                    int progressKills;
-                    if (taskProgress.getProgress() == null) {
-                        progressKills = 0;
-                    } else {
-                        progressKills = (int) taskProgress.getProgress();
-                    }
+            int mobKillsNeeded = (int) task.getConfigValue("amount");
 
-                    taskProgress.setProgress(progressKills + 1);
+            int progressKills = taskProgress.incrementIntProgress(1);
 
-                    if (((int) taskProgress.getProgress()) >= mobKillsNeeded) {
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            if (progressKills >= mobKillsNeeded) {
+                taskProgress.setCompleted(true);
             }
         }
     }
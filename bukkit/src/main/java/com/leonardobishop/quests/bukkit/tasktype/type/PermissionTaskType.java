@@ -4,10 +4,9 @@ import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
@@ -33,20 +32,14 @@ public final class PermissionTaskType extends BukkitTaskType {
                     if (qPlayer == null) {
                         continue;
                     }
-                    for (Quest quest : PermissionTaskType.super.getRegisteredQuests()) {
-                        if (qPlayer.hasStartedQuest(quest)) {
-                            QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-                            for (Task task : quest.getTasksOfType(PermissionTaskType.super.getType())) {
-                                TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-                                if (taskProgress.isCompleted()) {
-                                    continue;
-                                }
-                                String permission = (String) task.getConfigValue("permission");
-                                if (permission != null) {
-                                    if (player.hasPermission(permission)) {
-                                        taskProgress.setCompleted(true);
-                                    }
-                                }
+                    for (ActiveTask activeTask : PermissionTaskType.super.getActiveTasks(qPlayer)) {
+                        Task task = activeTask.getTask();
+                        TaskProgress taskProgress = activeTask.getTaskProgress();
+
+                        String permission = (String) task.getConfigValue("permission");
+                        if (permission != null) {
+                            if (player.hasPermission(permission)) {
+                                taskProgress.setCompleted(true);
                             }
                         }
                     }
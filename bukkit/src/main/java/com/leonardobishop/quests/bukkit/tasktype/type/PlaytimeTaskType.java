@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
@@ -50,31 +49,20 @@ public final class PlaytimeTaskType extends BukkitTaskType {
                             continue;
                         }
 
-                        for (Quest quest : PlaytimeTaskType.super.getRegisteredQuests()) {
-                            if (qPlayer.hasStartedQuest(quest)) {
-                                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-                                for (Task task : quest.getTasksOfType(PlaytimeTaskType.super.getType())) {
-                                    if ((boolean) task.getConfigValue("ignore-afk", false)
-                                            && plugin.getEssentialsHook() != null
-                                            && plugin.getEssentialsHook().isAfk(player)) {
-                                        continue;
-                                    }
-                                    if (!TaskUtils.validateWorld(player, task)) continue;
+                        for (ActiveTask activeTask : PlaytimeTaskType.super.getActiveTasks(qPlayer)) {
+                            Task task = activeTask.getTask();
+                            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-                                    if (taskProgress.isCompleted()) {
-                                        continue;
-                                    }
-                                    int minutes = (int) task.getConfigValue("minutes");
-                                    if (taskProgress.getProgress() == null) {
-                                        taskProgress.setProgress(1);
-                                    } else {
-                                        taskProgress.setProgress((int) taskProgress.getProgress() + 1);
-                                    }
-                                    if (((int) taskProgress.getProgress()) >= minutes) {
-                                        taskProgress.setCompleted(true);
-                                    }
-                                }
+                            if ((boolean) task.getConfigValue("ignore-afk", false)
+                                    && plugin.getEssentialsHook() != null
+                                    && plugin.getEssentialsHook().isAfk(player)) {
+                                continue;
+                            }
+                            if (!TaskUtils.validateWorld(player, task)) continue;
+
+                            int minutes = (int) task.getConfigValue("minutes");
+                            if (taskProgress.incrementIntProgress(1) >= minutes) {
+                                taskProgress.setCompleted(true);
                             }
                         }
                     }
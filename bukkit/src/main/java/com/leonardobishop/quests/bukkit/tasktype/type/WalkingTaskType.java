@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
@@ -53,39 +52,23 @@ public final class WalkingTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(player, task)) continue;
+            if (!TaskUtils.validateWorld(player, task)) continue;
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-
-                    if (task.getConfigValue("mode") != null
-                            && !validateTransportMethod(player, task.getConfigValue("mode").toString())) {
-                        continue;
-                    }
-
-                    int distanceNeeded = (int) task.getConfigValue("distance");
+            if (task.getConfigValue("mode") != null
+                    && !validateTransportMethod(player, task.getConfigValue("mode").toString())) {
+                continue;
+            }
 
-                    int progressDistance;
-                    if (taskProgress.getProgress() == null) {
-                        progressDistance = 0;
-                    } else {
-                        progressDistance = (int) taskProgress.getProgress();
-                    }
+            int distanceNeeded = (int) task.getConfigValue("distance");
 
-                    taskProgress.setProgress(progressDistance + 1);
+            int progressDistance = taskProgress.incrementIntProgress(1);
 
-                    if (((int) taskProgress.getProgress()) >= distanceNeeded) {
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            if (progressDistance >= distanceNeeded) {
+                taskProgress.setCompleted(true);
             }
         }
     }
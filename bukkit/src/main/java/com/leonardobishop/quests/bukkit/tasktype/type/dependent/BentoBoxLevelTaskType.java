@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import com.leonardobishop.quests.common.tasktype.TaskTypeManager;
 import org.bukkit.event.EventHandler;
 import org.jetbrains.annotations.NotNull;
@@ -57,26 +56,17 @@ public final class BentoBoxLevelTaskType extends BukkitTaskType {
                     continue;
                 }
 
-                for (Quest quest : super.getRegisteredQuests()) {
-                    if (qPlayer.hasStartedQuest(quest)) {
-                        QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+                for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+                    Task task = activeTask.getTask();
+                    TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                        for (Task task : quest.getTasksOfType(super.getType())) {
-                            TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+                    long islandLevelNeeded = (long) (int) task.getConfigValue("level");
+                    long newLevel = (long) event.getKeyValues().get("level");
 
-                            if (taskProgress.isCompleted()) {
-                                continue;
-                            }
+                    taskProgress.setProgress(event.getKeyValues().get("level"));
 
-                            long islandLevelNeeded = (long) (int) task.getConfigValue("level");
-                            long newLevel = (long) event.getKeyValues().get("level");
-
-                            taskProgress.setProgress(event.getKeyValues().get("level"));
-
-                            if (newLevel >= islandLevelNeeded) {
-                                taskProgress.setCompleted(true);
-                            }
-                        }
+                    if (newLevel >= islandLevelNeeded) {
+                        taskProgress.setCompleted(true);
                     }
                 }
             }
@@ -10,10 +10,10 @@ import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import net.citizensnpcs.api.event.NPCRightClickEvent;
 import net.citizensnpcs.api.npc.NPC;
 import org.bukkit.Bukkit;
@@ -75,63 +75,55 @@ public final class CitizensDeliverTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (task.getConfigValue("npc-name") != null) {
-                        if (!Chat.strip(Chat.color(String.valueOf(task.getConfigValue("npc-name"))))
-                                .equals(Chat.strip(Chat.color(npc.getName())))) {
-                            continue;
-                        }
-                    } else if (!task.getConfigValue("npc-id").equals(npc.getId())) {
-                        continue;
-                    }
-                    if (!TaskUtils.validateWorld(player, task)) continue;
-
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Quest quest = activeTask.getQuest();
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                    if (taskProgress.isCompleted()) {
+            if (task.getConfigValue("npc-name") != null) {
+                if (!Chat.strip(Chat.color(String.valueOf(task.getConfigValue("npc-name"))))
+                        .equals(Chat.strip(Chat.color(npc.getName())))) {
+                    continue;
+                }
+            } else if (!task.getConfigValue("npc-id").equals(npc.getId())) {
+                continue;
+            }
+            if (!TaskUtils.validateWorld(player, task)) continue;
+
+            Material material;
+            int amount = (int) task.getConfigValue("amount");
+            Object configBlock = task.getConfigValue("item");
+            Object configData = task.getConfigValue("data");
+            Object remove = task.getConfigValue("remove-items-when-complete");
+
+            QuestItem qi;
+            if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
+                if (configBlock instanceof ConfigurationSection) {
+                    qi = plugin.getConfiguredQuestItem("", (ConfigurationSection) configBlock);
+                } else {
+                    material = Material.getMaterial(String.valueOf(configBlock));
+                    ItemStack is;
+                    if (material == null) {
                         continue;
                     }
-
-                    Material material;
-                    int amount = (int) task.getConfigValue("amount");
-                    Object configBlock = task.getConfigValue("item");
-                    Object configData = task.getConfigValue("data");
-                    Object remove = task.getConfigValue("remove-items-when-complete");
-
-                    QuestItem qi;
-                    if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
-                        if (configBlock instanceof ConfigurationSection) {
-                            qi = plugin.getConfiguredQuestItem("", (ConfigurationSection) configBlock);
-                        } else {
-                            material = Material.getMaterial(String.valueOf(configBlock));
-                            ItemStack is;
-                            if (material == null) {
-                                continue;
-                            }
-                            if (configData != null) {
-                                is = new ItemStack(material, 1, ((Integer) configData).shortValue());
-                            } else {
-                                is = new ItemStack(material, 1);
-                            }
-                            qi = new ParsedQuestItem("parsed", null, is);
-                        }
-                        fixedQuestItemCache.put(quest.getId(), task.getId(), qi);
+                    if (configData != null) {
+                        is = new ItemStack(material, 1, ((Integer) configData).shortValue());
+                    } else {
+                        is = new ItemStack(material, 1);
                     }
+                    qi = new ParsedQuestItem("parsed", null, is);
+                }
+                fixedQuestItemCache.put(quest.getId(), task.getId(), qi);
+            }
 
-                    int[] amountPerSlot = getAmountsPerSlot(player, qi);
-                    int total = Math.min(amountPerSlot[36], amount);
-                    taskProgress.setProgress(total);
+            int[] amountPerSlot = getAmountsPerSlot(player, qi);
+            int total = Math.min(amountPerSlot[36], amount);
+            taskProgress.setIntProgress(total);
 
-                    if (total >= amount) {
-                        taskProgress.setCompleted(true);
+            if (total >= amount) {
+                taskProgress.setCompleted(true);
 
-                        if (remove != null && ((Boolean) remove)) removeItemsInSlots(player, amountPerSlot, total);
-                    }
-                }
+                if (remove != null && ((Boolean) remove)) removeItemsInSlots(player, amountPerSlot, total);
             }
         }
     }
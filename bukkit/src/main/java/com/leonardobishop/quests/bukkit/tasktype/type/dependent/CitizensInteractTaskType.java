@@ -6,10 +6,9 @@ import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import net.citizensnpcs.api.event.NPCRightClickEvent;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -46,30 +45,22 @@ public final class CitizensInteractTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(event.getClicker(), task)) continue;
+            if (!TaskUtils.validateWorld(event.getClicker(), task)) continue;
 
-                    if (task.getConfigValue("npc-name") != null) {
-                        if (!Chat.strip(Chat.color(String.valueOf(task.getConfigValue("npc-name"))))
-                                .equals(Chat.strip(Chat.color(event.getNPC().getName())))) {
-                            continue;
-                        }
-                    } else if (!task.getConfigValue("npc-id").equals(event.getNPC().getId())) {
-                        continue;
-                    }
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-
-                    taskProgress.setCompleted(true);
+            if (task.getConfigValue("npc-name") != null) {
+                if (!Chat.strip(Chat.color(String.valueOf(task.getConfigValue("npc-name"))))
+                        .equals(Chat.strip(Chat.color(event.getNPC().getName())))) {
+                    continue;
                 }
+            } else if (!task.getConfigValue("npc-id").equals(event.getNPC().getId())) {
+                continue;
             }
+
+            taskProgress.setCompleted(true);
         }
     }
 
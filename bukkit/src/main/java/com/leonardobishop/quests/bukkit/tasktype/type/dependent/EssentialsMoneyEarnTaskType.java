@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import net.ess3.api.events.UserBalanceUpdateEvent;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -43,30 +42,21 @@ public final class EssentialsMoneyEarnTaskType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            int earningsNeeded = (int) task.getConfigValue("amount");
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-
-                    int earningsNeeded = (int) task.getConfigValue("amount");
-
-                    BigDecimal current = (BigDecimal) taskProgress.getProgress();
-                    if (current == null) {
-                        current = new BigDecimal(0);
-                    }
-                    BigDecimal newProgress = current.add(event.getNewBalance().subtract(event.getOldBalance()));
-                    taskProgress.setProgress(newProgress);
+            BigDecimal current = (BigDecimal) taskProgress.getProgress();
+            if (current == null) {
+                current = new BigDecimal(0);
+            }
+            BigDecimal newProgress = current.add(event.getNewBalance().subtract(event.getOldBalance()));
+            taskProgress.setProgress(newProgress);
 
-                    if (newProgress.compareTo(BigDecimal.valueOf(earningsNeeded)) > 0) {
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            if (newProgress.compareTo(BigDecimal.valueOf(earningsNeeded)) > 0) {
+                taskProgress.setCompleted(true);
             }
         }
     }
@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import com.songoda.skyblock.api.event.island.IslandLevelChangeEvent;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -48,25 +47,16 @@ public final class FabledSkyblockLevelTaskType extends BukkitTaskType {
                 continue;
             }
 
-            for (Quest quest : super.getRegisteredQuests()) {
-                if (qPlayer.hasStartedQuest(quest)) {
-                    QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+            for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+                Task task = activeTask.getTask();
+                TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                    for (Task task : quest.getTasksOfType(super.getType())) {
-                        TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+                int islandValueNeeded = (int) task.getConfigValue("level");
 
-                        if (taskProgress.isCompleted()) {
-                            continue;
-                        }
+                taskProgress.setDoubleProgress(event.getLevel().getLevel());
 
-                        int islandValueNeeded = (int) task.getConfigValue("level");
-
-                        taskProgress.setProgress(event.getLevel().getLevel());
-
-                        if (((double) taskProgress.getProgress()) >= islandValueNeeded) {
-                            taskProgress.setCompleted(true);
-                        }
-                    }
+                if (taskProgress.getDoubleProgress() >= islandValueNeeded) {
+                    taskProgress.setCompleted(true);
                 }
             }
         }
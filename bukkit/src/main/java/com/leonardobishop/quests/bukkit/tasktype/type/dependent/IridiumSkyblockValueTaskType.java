@@ -7,10 +7,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.jetbrains.annotations.NotNull;
@@ -53,25 +52,16 @@ public final class IridiumSkyblockValueTaskType extends BukkitTaskType {
                 continue;
             }
 
-            for (Quest quest : IridiumSkyblockValueTaskType.super.getRegisteredQuests()) {
-                if (qPlayer.hasStartedQuest(quest)) {
-                    QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+            for (ActiveTask activeTask : IridiumSkyblockValueTaskType.super.getActiveTasks(qPlayer)) {
+                Task task = activeTask.getTask();
+                TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                    for (Task task : quest.getTasksOfType(IridiumSkyblockValueTaskType.super.getType())) {
-                        TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+                int islandValueNeeded = (int) task.getConfigValue("value");
 
-                        if (taskProgress.isCompleted()) {
-                            continue;
-                        }
+                taskProgress.setDoubleProgress(event.getIslandWorth());
 
-                        int islandValueNeeded = (int) task.getConfigValue("value");
-
-                        taskProgress.setProgress(event.getIslandWorth());
-
-                        if (((double) taskProgress.getProgress()) >= islandValueNeeded) {
-                            taskProgress.setCompleted(true);
-                        }
-                    }
+                if (taskProgress.getDoubleProgress() >= islandValueNeeded) {
+                    taskProgress.setCompleted(true);
                 }
             }
         }
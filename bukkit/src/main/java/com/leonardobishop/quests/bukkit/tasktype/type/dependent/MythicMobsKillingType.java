@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import io.lumine.xikage.mythicmobs.api.bukkit.events.MythicMobDeathEvent;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
@@ -61,46 +60,30 @@ public final class MythicMobsKillingType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    if (!TaskUtils.validateWorld(killer.getWorld().getName(), task)) continue;
+            if (!TaskUtils.validateWorld(killer.getWorld().getName(), task)) continue;
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            String configName = (String) task.getConfigValue("name");
+            int minMobLevel = (int) task.getConfigValue("min-level", -1);
+            int requiredLevel = (int) task.getConfigValue("level", -1);
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
-
-                    String configName = (String) task.getConfigValue("name");
-                    int minMobLevel = (int) task.getConfigValue("min-level", -1);
-                    int requiredLevel = (int) task.getConfigValue("level", -1);
-
-                    if (!mobName.equals(configName) || level < minMobLevel) {
-                        return;
-                    }
-
-                    if (requiredLevel != -1 && level != requiredLevel) {
-                        return;
-                    }
+            if (!mobName.equals(configName) || level < minMobLevel) {
+                return;
+            }
 
-                    int mobKillsNeeded = (int) task.getConfigValue("amount");
+            if (requiredLevel != -1 && level != requiredLevel) {
+                return;
+            }
 
-                    int progressKills;
-                    if (taskProgress.getProgress() == null) {
-                        progressKills = 0;
-                    } else {
-                        progressKills = (int) taskProgress.getProgress();
-                    }
+            int mobKillsNeeded = (int) task.getConfigValue("amount");
 
-                    taskProgress.setProgress(progressKills + 1);
+            int progressKills = taskProgress.incrementIntProgress(1);
 
-                    if (((int) taskProgress.getProgress()) >= mobKillsNeeded) {
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            if (progressKills >= mobKillsNeeded) {
+                taskProgress.setCompleted(true);
             }
         }
     }
@@ -5,10 +5,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import me.clip.placeholderapi.PlaceholderAPI;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -69,66 +68,59 @@ public final class PlaceholderAPIEvaluateTaskType extends BukkitTaskType {
                         continue;
                     }
 
-                    for (Quest quest : PlaceholderAPIEvaluateTaskType.super.getRegisteredQuests()) {
-                        if (qPlayer.hasStartedQuest(quest)) {
-                            QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
-                            for (Task task : quest.getTasksOfType(PlaceholderAPIEvaluateTaskType.super.getType())) {
-                                if (!TaskUtils.validateWorld(player, task)) continue;
-                                TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
-                                if (taskProgress.isCompleted()) {
+                    for (ActiveTask activeTask : PlaceholderAPIEvaluateTaskType.super.getActiveTasks(qPlayer)) {
+                        Task task = activeTask.getTask();
+                        TaskProgress taskProgress = activeTask.getTaskProgress();
+
+                        if (!TaskUtils.validateWorld(player, task)) continue;
+                        String placeholder = (String) task.getConfigValue("placeholder");
+                        String evaluates = String.valueOf(task.getConfigValue("evaluates"));
+                        String configOperator = (String) task.getConfigValue("operator");
+                        Operator operator = null;
+                        if (configOperator != null) {
+                            try {
+                                operator = Operator.valueOf(configOperator);
+                            } catch (IllegalArgumentException ignored) { }
+                        }
+                        if (placeholder != null && evaluates != null) {
+                            double numericEvaluates = 0;
+                            if (operator != null) {
+                                try {
+                                    numericEvaluates = Double.parseDouble(evaluates);
+                                } catch (NumberFormatException ex) {
                                     continue;
                                 }
-                                String placeholder = (String) task.getConfigValue("placeholder");
-                                String evaluates = String.valueOf(task.getConfigValue("evaluates"));
-                                String configOperator = (String) task.getConfigValue("operator");
-                                Operator operator = null;
-                                if (configOperator != null) {
-                                    try {
-                                        operator = Operator.valueOf(configOperator);
-                                    } catch (IllegalArgumentException ignored) { }
-                                }
-                                if (placeholder != null && evaluates != null) {
-                                    double numericEvaluates = 0;
-                                    if (operator != null) {
-                                        try {
-                                            numericEvaluates = Double.parseDouble(evaluates);
-                                        } catch (NumberFormatException ex) {
-                                            continue;
-                                        }
-                                    }
+                            }
 
-                                    String evaluated = PlaceholderAPI.setPlaceholders(player, placeholder);
-                                    if (operator == null && evaluated.equals(evaluates)) {
-                                        taskProgress.setCompleted(true);
-                                    } else if (operator != null) {
-                                        double numericEvaluated;
-                                        try {
-                                            numericEvaluated = Double.parseDouble(evaluated);
-                                        } catch (NumberFormatException ex) {
-                                            continue;
-                                        }
-                                        taskProgress.setProgress(numericEvaluated);
-                                        switch (operator) {
-                                            case GREATER_THAN:
-                                                if (numericEvaluated > numericEvaluates)
-                                                    taskProgress.setCompleted(true);
-                                                continue;
-                                            case LESS_THAN:
-                                                if (numericEvaluated < numericEvaluates)
-                                                    taskProgress.setCompleted(true);
-                                                continue;
-                                            case GREATER_THAN_OR_EQUAL_TO:
-                                                if (numericEvaluated >= numericEvaluates)
-                                                    taskProgress.setCompleted(true);
-                                                continue;
-                                            case LESS_THAN_OR_EQUAL_TO:
-                                                if (numericEvaluated <= numericEvaluates)
-                                                    taskProgress.setCompleted(true);
-                                                continue;
-                                        }
-                                    }
+                            String evaluated = PlaceholderAPI.setPlaceholders(player, placeholder);
+                            if (operator == null && evaluated.equals(evaluates)) {
+                                taskProgress.setCompleted(true);
+                            } else if (operator != null) {
+                                double numericEvaluated;
+                                try {
+                                    numericEvaluated = Double.parseDouble(evaluated);
+                                } catch (NumberFormatException ex) {
+                                    continue;
+                                }
+                                taskProgress.setDoubleProgress(numericEvaluated);
+                                switch (operator) {
+                                    case GREATER_THAN:
+                                        if (numericEvaluated > numericEvaluates)
+                                            taskProgress.setCompleted(true);
+                                        continue;
+                                    case LESS_THAN:
+                                        if (numericEvaluated < numericEvaluates)
+                                            taskProgress.setCompleted(true);
+                                        continue;
+                                    case GREATER_THAN_OR_EQUAL_TO:
+                                        if (numericEvaluated >= numericEvaluates)
+                                            taskProgress.setCompleted(true);
+                                        continue;
+                                    case LESS_THAN_OR_EQUAL_TO:
+                                        if (numericEvaluated <= numericEvaluates)
+                                            taskProgress.setCompleted(true);
+                                        continue;
                                 }
-
                             }
                         }
                     }
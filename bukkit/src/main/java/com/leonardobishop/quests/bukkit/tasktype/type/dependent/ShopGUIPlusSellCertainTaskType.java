@@ -15,11 +15,9 @@ import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.QPlayerManager;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import net.brcdev.shopgui.event.ShopPostTransactionEvent;
 import net.brcdev.shopgui.shop.Shop;
 import net.brcdev.shopgui.shop.ShopItem;
@@ -73,54 +71,30 @@ public final class ShopGUIPlusSellCertainTaskType extends BukkitTaskType {
         String itemId = shopItem.getId();
         int amountSold = result.getAmount();
     
-        List<Quest> registeredQuests = super.getRegisteredQuests();
-        for (Quest quest : registeredQuests) {
-            if (!qplayer.hasStartedQuest(quest)) {
+        for (ActiveTask activeTask : super.getActiveTasks(qplayer)) {
+            Task task = activeTask.getTask();
+            if (!TaskUtils.validateWorld(worldName, task)) {
                 continue;
             }
-    
-            QuestProgressFile questProgressFile = qplayer.getQuestProgressFile();
-            QuestProgress questProgress = questProgressFile.getQuestProgress(quest);
-    
-            String questTypeName = super.getType();
-            List<Task> taskList = quest.getTasksOfType(questTypeName);
-            for (Task task : taskList) {
-                if (!TaskUtils.validateWorld(worldName, task)) {
-                    continue;
-                }
-                
-                String taskId = task.getId();
-                TaskProgress taskProgress = questProgress.getTaskProgress(taskId);
-                if (taskProgress.isCompleted()) {
-                    continue;
-                }
-                
-                String taskShopId = (String) task.getConfigValue("shop-id");
-                if (taskShopId == null || !taskShopId.equals(shopId)) {
-                    continue;
-                }
-                
-                String taskItemId = (String) task.getConfigValue("item-id");
-                if (taskItemId == null || !taskItemId.equals(itemId)) {
-                    continue;
-                }
-                
-                int amountNeeded = (int) task.getConfigValue("amount");
-                
-                int progressAmount;
-                Object progress = taskProgress.getProgress();
-                if (progress == null) {
-                    progressAmount = 0;
-                } else {
-                    progressAmount = (int) progress;
-                }
-                
-                int newProgress = (progressAmount + amountSold);
-                taskProgress.setProgress(newProgress);
-                
-                if (newProgress >= amountNeeded) {
-                    taskProgress.setCompleted(true);
-                }
+            
+            TaskProgress taskProgress = activeTask.getTaskProgress();
+            
+            String taskShopId = (String) task.getConfigValue("shop-id");
+            if (taskShopId == null || !taskShopId.equals(shopId)) {
+                continue;
+            }
+            
+            String taskItemId = (String) task.getConfigValue("item-id");
+            if (taskItemId == null || !taskItemId.equals(itemId)) {
+                continue;
+            }
+            
+            int amountNeeded = (int) task.getConfigValue("amount");
+            
+            int newProgress = taskProgress.incrementIntProgress(amountSold);
+            
+            if (newProgress >= amountNeeded) {
+                taskProgress.setCompleted(true);
             }
         }
     }
@@ -7,10 +7,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.jetbrains.annotations.NotNull;
@@ -45,26 +44,17 @@ public final class SuperiorSkyblockWorthType extends BukkitTaskType {
                 continue;
             }
 
-            for (Quest quest : super.getRegisteredQuests()) {
-                if (qPlayer.hasStartedQuest(quest)) {
-                    QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+            for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+                Task task = activeTask.getTask();
+                TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                    for (Task task : quest.getTasksOfType(super.getType())) {
-                        TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+                double islandWorthNeeded = Double.parseDouble(String.valueOf(task.getConfigValue("worth")));
+                BigDecimal bd = new BigDecimal(islandWorthNeeded);
 
-                        if (taskProgress.isCompleted()) {
-                            continue;
-                        }
+                taskProgress.setDoubleProgress(event.getNewWorth().doubleValue());
 
-                        double islandWorthNeeded = Double.parseDouble(String.valueOf(task.getConfigValue("worth")));
-                        BigDecimal bd = new BigDecimal(islandWorthNeeded);
-
-                        taskProgress.setProgress(event.getNewWorth().doubleValue());
-
-                        if (event.getNewWorth().compareTo(bd) > 0) {
-                            taskProgress.setCompleted(true);
-                        }
-                    }
+                if (event.getNewWorth().compareTo(bd) > 0) {
+                    taskProgress.setCompleted(true);
                 }
             }
         }
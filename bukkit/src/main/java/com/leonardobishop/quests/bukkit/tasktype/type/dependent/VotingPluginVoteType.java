@@ -6,10 +6,9 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
-import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -51,32 +50,16 @@ public final class VotingPluginVoteType extends BukkitTaskType {
             return;
         }
 
-        for (Quest quest : super.getRegisteredQuests()) {
-            if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+        for (ActiveTask activeTask : super.getActiveTasks(qPlayer)) {
+            Task task = activeTask.getTask();
+            TaskProgress taskProgress = activeTask.getTaskProgress();
 
-                for (Task task : quest.getTasksOfType(super.getType())) {
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            int votesNeeded = (int) task.getConfigValue("amount");
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
+            int progressVotes = taskProgress.incrementIntProgress(1);
 
-                    int votesNeeded = (int) task.getConfigValue("amount");
-
-                    int progressVotes;
-                    if (taskProgress.getProgress() == null) {
-                        progressVotes = 0;
-                    } else {
-                        progressVotes = (int) taskProgress.getProgress();
-                    }
-
-                    taskProgress.setProgress(progressVotes + 1);
-
-                    if (((int) taskProgress.getProgress()) >= votesNeeded) {
-                        taskProgress.setCompleted(true);
-                    }
-                }
+            if (progressVotes >= votesNeeded) {
+                taskProgress.setCompleted(true);
             }
         }
     }
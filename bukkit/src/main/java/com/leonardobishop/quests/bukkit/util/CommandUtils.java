@@ -4,12 +4,15 @@ import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class CommandUtils {
 
@@ -69,7 +72,12 @@ public class CommandUtils {
         }
     }
 
-    public static QPlayer getOtherPlayer(CommandSender sender, String name, BukkitQuestsPlugin plugin) {
+    /**
+     * Get the QPlayer of another player by name, loading them in the background if they are not online or
+     * cached. The callback is run on the main thread once they are available, and is not run at all if they
+     * cannot be found or loaded. See {@link com.leonardobishop.quests.common.player.QPlayerManager#loadOfflinePlayerAsync(UUID)}.
+     */
+    public static void getOtherPlayerAsync(CommandSender sender, String name, BukkitQuestsPlugin plugin, Consumer<QPlayer> callback) {
         OfflinePlayer ofp = Bukkit.getOfflinePlayer(name);
         UUID uuid;
         String username;
@@ -78,19 +86,42 @@ public class CommandUtils {
             username = ofp.getName();
         } else {
             sender.sendMessage(Messages.COMMAND_QUEST_ADMIN_PLAYERNOTFOUND.getMessage().replace("{player}", name));
-            return null;
+            return;
         }
-        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
-        if (qPlayer == null) {
-            sender.sendMessage(Messages.COMMAND_QUEST_ADMIN_LOADDATA.getMessage().replace("{player}", username));
-            plugin.getPlayerManager().loadPlayer(uuid);
-            qPlayer = plugin.getPlayerManager().getPlayer(uuid);
+        CompletableFuture<QPlayer> future = plugin.getPlayerManager().loadOfflinePlayerAsync(uuid);
+        QPlayer qPlayer = future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+        if (qPlayer != null) {
+            callback.accept(qPlayer);
+            return;
         }
-        if (qPlayer == null) {
-            sender.sendMessage(Messages.COMMAND_QUEST_ADMIN_NODATA.getMessage().replace("{player}", username));
-            return null;
-        }
-        return qPlayer;
+
+        sender.sendMessage(Messages.COMMAND_QUEST_ADMIN_LOADDATA.getMessage().replace("{player}", username));
+        future.whenComplete((loadedQPlayer, throwable) -> plugin.getScheduler().doSync(() -> {
+            if (throwable != null) {
+                plugin.getQuestsLogger().severe("Failed to load player: " + uuid + "!");
+                throwable.printStackTrace();
+            }
+            if (loadedQPlayer == null) {
+                sender.sendMessage(Messages.COMMAND_QUEST_ADMIN_NODATA.getMessage().replace("{player}", username));
+                return;
+            }
+            callback.accept(loadedQPlayer);
+        }));
+    }
+
+    /**
+     * Save a player whose progress has been changed by a command, and tell the sender whether the save was
+     * written once it has finished. If it was not, the changes are kept and written by the next save.
+     */
+    public static void saveAndReport(CommandSender sender, String name, UUID uuid, QuestProgressFile questProgressFile, BukkitQuestsPlugin plugin, String successMessage) {
+        plugin.getPlayerManager().savePlayer(uuid, questProgressFile)
+                .whenComplete((ignored, throwable) -> plugin.getScheduler().doSync(() -> {
+                    if (throwable != null) {
+                        sender.sendMessage(Messages.COMMAND_QUEST_ADMIN_SAVE_FAIL.getMessage().replace("{player}", name));
+                        return;
+                    }
+                    sender.sendMessage(successMessage);
+                }));
     }
 
 }
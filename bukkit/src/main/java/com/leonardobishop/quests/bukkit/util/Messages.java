@@ -61,6 +61,7 @@ public enum Messages {
     COMMAND_QUEST_ADMIN_RANDOM_SUCCESS("messages.command-quest-admin-random-success", "&7Successfully started random quest '&c{quest}&7' for player &c{player}&7."),
     COMMAND_QUEST_ADMIN_RANDOM_CATEGORY_NONE("messages.command-quest-admin-random-category-none", "&7Player &c{player}&7 has no quests in category '&c{category}&7' which they can start."),
     COMMAND_QUEST_ADMIN_RANDOM_CATEGORY_SUCCESS("messages.command-quest-admin-random-category-success", "&7Successfully started random quest '&c{quest}&7' from category '&c{category}&7' for player &c{player}&7."),
+    COMMAND_QUEST_ADMIN_SAVE_FAIL("messages.command-quest-admin-save-fail", "&7Changes to player &c{player}&7 could not be saved, see the console for details. They will be saved again later."),
 
     // Other
     UI_PLACEHOLDERS_TRUE("messages.ui-placeholder-completed-true", "true"),
@@ -0,0 +1,126 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProgressCodecTest {
+
+    private static final UUID PLAYER = UUID.randomUUID();
+
+    private final TestStorageContext context = new TestStorageContext();
+    private final BinaryProgressCodec codec = new BinaryProgressCodec(context);
+
+    @Test
+    void roundTripsProgress() throws IOException {
+        QuestProgressFile questProgressFile = new QuestProgressFile(PLAYER, null);
+        QuestProgress questProgress = new QuestProgress(null, "quest", true, true, 1_600_000_000_000L, PLAYER, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "int", -42, PLAYER, true));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "long", Long.MIN_VALUE, PLAYER, false));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "float", 2.5f, PLAYER, false));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "double", 0.1d, PLAYER, false));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "string", "text", PLAYER, false));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "decimal", new BigDecimal("12.345"), PLAYER, false));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "none", null, PLAYER, true));
+        questProgressFile.addQuestProgress(questProgress);
+        questProgressFile.addQuestProgress(new QuestProgress(null, "empty", false, false, 0, PLAYER, false));
+
+        QuestProgressFile decoded = codec.decode(PLAYER, codec.encode(questProgressFile));
+        assertEquals(PLAYER, decoded.getPlayerUUID());
+        assertEquals(2, decoded.getAllQuestProgress().size());
+        assertFalse(decoded.isModified());
+
+        QuestProgress decodedProgress = find(decoded, "quest");
+        assertTrue(decodedProgress.isStarted());
+        assertTrue(decodedProgress.isCompleted());
+        assertTrue(decodedProgress.isCompletedBefore());
+        assertEquals(1_600_000_000_000L, decodedProgress.getCompletionDate());
+
+        Map<String, TaskProgress> tasks = decodedProgress.getTaskProgressMap();
+        assertEquals(7, tasks.size());
+        assertEquals(-42, tasks.get("int").getProgress());
+        assertTrue(tasks.get("int").isCompleted());
+        assertEquals(Long.MIN_VALUE, tasks.get("long").getProgress());
+        assertEquals(2.5f, tasks.get("float").getProgress());
+        assertEquals(0.1d, tasks.get("double").getProgress());
+        assertEquals("text", tasks.get("string").getProgress());
+        assertEquals(new BigDecimal("12.345"), tasks.get("decimal").getProgress());
+        assertNull(tasks.get("none").getProgress());
+        assertTrue(tasks.get("none").isCompleted());
+
+        QuestProgress emptyProgress = find(decoded, "empty");
+        assertFalse(emptyProgress.isStarted());
+        assertTrue(emptyProgress.getTaskProgress().isEmpty());
+    }
+
+    @Test
+    void decodesAsModifiedForMerging() throws IOException {
+        QuestProgressFile questProgressFile = new QuestProgressFile(PLAYER, null);
+        QuestProgress questProgress = new QuestProgress(null, "quest", false, false, 0, PLAYER, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "task", 3, PLAYER, false));
+        questProgressFile.addQuestProgress(questProgress);
+
+        QuestProgressFile decoded = codec.decode(PLAYER, codec.encode(questProgressFile), true);
+        assertTrue(decoded.isModified());
+        assertEquals(1, find(decoded, "quest").getModifiedTaskProgress().size());
+    }
+
+    @Test
+    void keepsCompletionOfProgressWhichCannotBeEncoded() throws IOException {
+        QuestProgressFile questProgressFile = new QuestProgressFile(PLAYER, null);
+        QuestProgress questProgress = new QuestProgress(null, "quest", false, false, 0, PLAYER, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "task", new Object(), PLAYER, true));
+        questProgressFile.addQuestProgress(questProgress);
+
+        QuestProgressFile decoded = codec.decode(PLAYER, codec.encode(questProgressFile));
+        TaskProgress taskProgress = find(decoded, "quest").getTaskProgressMap().get("task");
+        assertNull(taskProgress.getProgress());
+        assertTrue(taskProgress.isCompleted());
+        assertEquals(1, context.getWarnings().size());
+    }
+
+    @Test
+    void rejectsCorruptFiles() {
+        QuestProgressFile questProgressFile = new QuestProgressFile(PLAYER, null);
+        QuestProgress questProgress = new QuestProgress(null, "quest", false, false, 0, PLAYER, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "task", 3, PLAYER, false));
+        questProgressFile.addQuestProgress(questProgress);
+        byte[] encoded = toArray(codec.encode(questProgressFile));
+
+        byte[] truncated = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> codec.decode(PLAYER, ByteBuffer.wrap(truncated)));
+
+        byte[] flipped = encoded.clone();
+        flipped[flipped.length - 1] ^= 1;
+        assertThrows(IOException.class, () -> codec.decode(PLAYER, ByteBuffer.wrap(flipped)));
+
+        byte[] wrongMagic = encoded.clone();
+        wrongMagic[0] = 0;
+        assertThrows(IOException.class, () -> codec.decode(PLAYER, ByteBuffer.wrap(wrongMagic)));
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static QuestProgress find(QuestProgressFile questProgressFile, String questId) {
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (questProgress.getQuestId().equals(questId)) {
+                return questProgress;
+            }
+        }
+        return fail("no progress for quest " + questId);
+    }
+}
@@ -0,0 +1,147 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.scheduler.ServerScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryStorageProviderTest {
+
+    private static final UUID PLAYER = UUID.randomUUID();
+    private static final long NEVER_COMPACT = Long.MAX_VALUE;
+
+    @TempDir
+    File dataFolder;
+
+    private TestStorageContext context;
+    private BinaryStorageProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        context = new TestStorageContext();
+        provider = newProvider(true, NEVER_COMPACT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.shutdown();
+    }
+
+    @Test
+    void savesAndLoadsSnapshot() {
+        provider = newProvider(false, NEVER_COMPACT);
+        provider.saveProgressFile(PLAYER, newSave("a", 1));
+        provider.saveProgressFile(PLAYER, newSave("b", 2));
+        assertTrue(getFile(".qpb").isFile());
+        assertFalse(getFile(".qpj").exists());
+
+        QuestProgress loaded = find(newProvider(false, NEVER_COMPACT).loadProgressFile(PLAYER));
+        assertEquals(1, loaded.getTaskProgressMap().get("a").getIntProgress());
+        assertEquals(2, loaded.getTaskProgressMap().get("b").getIntProgress());
+    }
+
+    @Test
+    void replaysJournal() {
+        provider.saveProgressFile(PLAYER, newSave("a", 1));
+        provider.saveProgressFile(PLAYER, newSave("a", 2));
+        provider.saveProgressFile(PLAYER, newSave("b", 3));
+        assertFalse(getFile(".qpb").exists());
+        assertTrue(getFile(".qpj").isFile());
+
+        QuestProgress loaded = find(newProvider(true, NEVER_COMPACT).loadProgressFile(PLAYER));
+        assertEquals(2, loaded.getTaskProgressMap().get("a").getIntProgress());
+        assertEquals(3, loaded.getTaskProgressMap().get("b").getIntProgress());
+        assertTrue(context.getWarnings().isEmpty());
+    }
+
+    @Test
+    void discardsTruncatedJournalRecord() throws IOException {
+        provider.saveProgressFile(PLAYER, newSave("a", 1));
+        long firstRecordEnd = getFile(".qpj").length();
+        provider.saveProgressFile(PLAYER, newSave("b", 2));
+
+        // as if the server stopped while appending the second record
+        try (RandomAccessFile journal = new RandomAccessFile(getFile(".qpj"), "rw")) {
+            journal.setLength(journal.length() - 3);
+        }
+
+        QuestProgressFile loaded = newProvider(true, NEVER_COMPACT).loadProgressFile(PLAYER);
+        assertNotNull(loaded);
+        QuestProgress questProgress = find(loaded);
+        assertEquals(1, questProgress.getTaskProgressMap().get("a").getIntProgress());
+        assertNull(questProgress.getTaskProgressMap().get("b"));
+        assertEquals(1, context.getWarnings().size());
+        assertEquals(firstRecordEnd, getFile(".qpj").length());
+
+        // records appended after the cut are replayed
+        BinaryStorageProvider reopened = newProvider(true, NEVER_COMPACT);
+        reopened.saveProgressFile(PLAYER, newSave("b", 4));
+        QuestProgress replayed = find(newProvider(true, NEVER_COMPACT).loadProgressFile(PLAYER));
+        assertEquals(1, replayed.getTaskProgressMap().get("a").getIntProgress());
+        assertEquals(4, replayed.getTaskProgressMap().get("b").getIntProgress());
+    }
+
+    @Test
+    void compactsJournalIntoSnapshot() {
+        provider = newProvider(true, 1);
+        provider.saveProgressFile(PLAYER, newSave("a", 1));
+        provider.saveProgressFile(PLAYER, newSave("b", 2));
+        assertTrue(getFile(".qpb").isFile());
+        assertFalse(getFile(".qpj").exists());
+
+        QuestProgress loaded = find(newProvider(true, 1).loadProgressFile(PLAYER));
+        assertEquals(1, loaded.getTaskProgressMap().get("a").getIntProgress());
+        assertEquals(2, loaded.getTaskProgressMap().get("b").getIntProgress());
+    }
+
+    private BinaryStorageProvider newProvider(boolean journal, long compactionThreshold) {
+        BinaryStorageProvider binaryStorageProvider = new BinaryStorageProvider(context, dataFolder, new DirectScheduler(), journal, compactionThreshold);
+        binaryStorageProvider.init();
+        return binaryStorageProvider;
+    }
+
+    private File getFile(String extension) {
+        return new File(new File(dataFolder, "playerdata"), PLAYER + extension);
+    }
+
+    /**
+     * Create a save as obtained by {@link QuestProgressFile#takeModified()}, with one modified task.
+     */
+    private static QuestProgressFile newSave(String taskId, int progress) {
+        QuestProgressFile questProgressFile = new QuestProgressFile(PLAYER, null);
+        QuestProgress questProgress = new QuestProgress(null, "quest", false, false, 0, PLAYER, true, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, taskId, progress, PLAYER, false, true));
+        questProgressFile.addQuestProgress(questProgress);
+        return questProgressFile;
+    }
+
+    private static QuestProgress find(QuestProgressFile questProgressFile) {
+        assertNotNull(questProgressFile);
+        assertEquals(1, questProgressFile.getAllQuestProgress().size());
+        return questProgressFile.getAllQuestProgress().iterator().next();
+    }
+
+    private static final class DirectScheduler implements ServerScheduler {
+
+        @Override
+        public void doSync(Runnable runnable) {
+            runnable.run();
+        }
+
+        @Override
+        public void doAsync(Runnable runnable) {
+            runnable.run();
+        }
+    }
+}
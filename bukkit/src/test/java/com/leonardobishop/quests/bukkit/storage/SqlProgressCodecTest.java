@@ -0,0 +1,44 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlProgressCodecTest {
+
+    @Test
+    void decodesLongs() {
+        assertEquals(0L, SqlProgressCodec.decodeLong("0"));
+        assertEquals(42L, SqlProgressCodec.decodeLong("42"));
+        assertEquals(42L, SqlProgressCodec.decodeLong("+42"));
+        assertEquals(-42L, SqlProgressCodec.decodeLong("-42"));
+        assertEquals(7L, SqlProgressCodec.decodeLong("007"));
+        assertEquals(5_000_000_000L, SqlProgressCodec.decodeLong("5000000000"));
+    }
+
+    @Test
+    void decodesLimits() {
+        assertEquals(Long.MAX_VALUE, SqlProgressCodec.decodeLong(String.valueOf(Long.MAX_VALUE)));
+        assertEquals(Long.MIN_VALUE, SqlProgressCodec.decodeLong(String.valueOf(Long.MIN_VALUE)));
+        assertEquals(Long.MAX_VALUE, SqlProgressCodec.decodeLong("+" + Long.MAX_VALUE));
+    }
+
+    @Test
+    void rejectsOutOfRange() {
+        assertNull(SqlProgressCodec.decodeLong("9223372036854775808"));
+        assertNull(SqlProgressCodec.decodeLong("-9223372036854775809"));
+        assertNull(SqlProgressCodec.decodeLong("99999999999999999999"));
+    }
+
+    @Test
+    void rejectsMalformed() {
+        assertNull(SqlProgressCodec.decodeLong(null));
+        assertNull(SqlProgressCodec.decodeLong(""));
+        assertNull(SqlProgressCodec.decodeLong("-"));
+        assertNull(SqlProgressCodec.decodeLong("+"));
+        assertNull(SqlProgressCodec.decodeLong("1.0"));
+        assertNull(SqlProgressCodec.decodeLong("12a"));
+        assertNull(SqlProgressCodec.decodeLong(" 1"));
+        assertNull(SqlProgressCodec.decodeLong("--1"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteStorageProviderTest {
+
+    @TempDir
+    File dataFolder;
+
+    private TestStorageContext context;
+    private SqliteStorageProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        context = new TestStorageContext();
+        provider = new SqliteStorageProvider(context, dataFolder);
+        provider.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.shutdown();
+    }
+
+    @Test
+    void createsDatabaseInDataFolder() {
+        assertTrue(new File(dataFolder, "playerdata.db").isFile());
+    }
+
+    @Test
+    void roundTripsNumericProgress() {
+        UUID uuid = UUID.randomUUID();
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, null);
+        QuestProgress questProgress = new QuestProgress(null, "quest", true, true, 1234L, uuid, true, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "int", 42, uuid, true, true));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "long", 5_000_000_000L, uuid, false, true));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "float", 2.5f, uuid, false, true));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "double", 0.1d, uuid, false, true));
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "none", null, uuid, false, true));
+        questProgressFile.addQuestProgress(questProgress);
+
+        provider.saveProgressFile(uuid, questProgressFile);
+        reopen();
+
+        QuestProgressFile loaded = provider.loadProgressFile(uuid);
+        assertNotNull(loaded);
+        QuestProgress loadedQuestProgress = find(loaded, "quest");
+        assertTrue(loadedQuestProgress.isStarted());
+        assertTrue(loadedQuestProgress.isCompleted());
+        assertTrue(loadedQuestProgress.isCompletedBefore());
+        assertEquals(1234L, loadedQuestProgress.getCompletionDate());
+
+        Map<String, TaskProgress> tasks = loadedQuestProgress.getTaskProgressMap();
+        assertEquals(5, tasks.size());
+
+        assertEquals(TaskProgress.ProgressType.INTEGER, tasks.get("int").getProgressType());
+        assertEquals(42, tasks.get("int").getProgress());
+        assertTrue(tasks.get("int").isCompleted());
+
+        assertEquals(TaskProgress.ProgressType.LONG, tasks.get("long").getProgressType());
+        assertEquals(5_000_000_000L, tasks.get("long").getProgress());
+        assertFalse(tasks.get("long").isCompleted());
+
+        assertEquals(TaskProgress.ProgressType.FLOAT, tasks.get("float").getProgressType());
+        assertEquals(2.5f, tasks.get("float").getProgress());
+
+        assertEquals(TaskProgress.ProgressType.DOUBLE, tasks.get("double").getProgressType());
+        assertEquals(0.1d, tasks.get("double").getProgress());
+
+        assertEquals(TaskProgress.ProgressType.NONE, tasks.get("none").getProgressType());
+        assertNull(tasks.get("none").getProgress());
+
+        assertFalse(loaded.isModified());
+        assertTrue(context.getWarnings().isEmpty());
+    }
+
+    @Test
+    void savesAndLoadsPlayersInBulk() {
+        // more than one chunk of players is loaded at a time
+        Map<UUID, QuestProgressFile> questProgressFiles = new HashMap<>();
+        for (int i = 0; i < 250; i++) {
+            UUID uuid = UUID.randomUUID();
+            questProgressFiles.put(uuid, newProgressFile(uuid, "quest", "task", i));
+        }
+
+        provider.saveProgressFiles(questProgressFiles);
+        reopen();
+
+        UUID unknown = UUID.randomUUID();
+        List<UUID> uuids = new ArrayList<>(questProgressFiles.keySet());
+        uuids.add(unknown);
+        Map<UUID, QuestProgressFile> loaded = provider.loadProgressFiles(uuids);
+
+        assertEquals(uuids.size(), loaded.size());
+        for (Map.Entry<UUID, QuestProgressFile> entry : questProgressFiles.entrySet()) {
+            int expected = find(entry.getValue(), "quest").getTaskProgress("task").getIntProgress();
+            QuestProgressFile loadedFile = loaded.get(entry.getKey());
+            assertEquals(entry.getKey(), loadedFile.getPlayerUUID());
+            assertEquals(expected, find(loadedFile, "quest").getTaskProgress("task").getIntProgress());
+        }
+        assertTrue(loaded.get(unknown).getAllQuestProgress().isEmpty());
+    }
+
+    @Test
+    void listsSavedPlayers() {
+        assertTrue(provider.loadAllUUIDs().isEmpty());
+
+        Set<UUID> uuids = new HashSet<>();
+        Map<UUID, QuestProgressFile> questProgressFiles = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            UUID uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            // a player with progress for several quests is listed once
+            QuestProgressFile questProgressFile = newProgressFile(uuid, "first", "task", i);
+            questProgressFile.addQuestProgress(find(newProgressFile(uuid, "second", "task", i), "second"));
+            questProgressFiles.put(uuid, questProgressFile);
+        }
+        provider.saveProgressFiles(questProgressFiles);
+
+        Collection<UUID> listed = provider.loadAllUUIDs();
+        assertEquals(uuids.size(), listed.size());
+        assertEquals(uuids, new HashSet<>(listed));
+    }
+
+    @Test
+    void savesOnlyModifiedProgressOverStoredProgress() {
+        UUID uuid = UUID.randomUUID();
+        QuestProgressFile questProgressFile = newProgressFile(uuid, "quest", "first", 1);
+        QuestProgress questProgress = find(questProgressFile, "quest");
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "second", 1, uuid, false, true));
+        provider.saveProgressFile(uuid, questProgressFile.takeModified());
+
+        questProgress.getTaskProgress("second").incrementIntProgress(1);
+        QuestProgressFile modified = questProgressFile.takeModified();
+        assertEquals(1, find(modified, "quest").getTaskProgress().size());
+        provider.saveProgressFile(uuid, modified);
+        reopen();
+
+        QuestProgress loaded = find(provider.loadProgressFile(uuid), "quest");
+        assertEquals(1, loaded.getTaskProgress("first").getIntProgress());
+        assertEquals(2, loaded.getTaskProgress("second").getIntProgress());
+    }
+
+    private void reopen() {
+        provider.shutdown();
+        provider = new SqliteStorageProvider(context, dataFolder);
+        provider.init();
+    }
+
+    private static QuestProgressFile newProgressFile(UUID uuid, String questId, String taskId, int progress) {
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, null);
+        QuestProgress questProgress = new QuestProgress(null, questId, false, false, 0, uuid, true, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, taskId, progress, uuid, false, true));
+        questProgressFile.addQuestProgress(questProgress);
+        return questProgressFile;
+    }
+
+    private static QuestProgress find(QuestProgressFile questProgressFile, String questId) {
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (questProgress.getQuestId().equals(questId)) {
+                return questProgress;
+            }
+        }
+        fail("no progress for quest " + questId);
+        return null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.common.config.QuestsConfig;
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A storage context with no quests, which does not check progress against them and keeps the warnings
+ * it is given.
+ */
+final class TestStorageContext implements StorageContext {
+
+    private final List<String> warnings = Collections.synchronizedList(new ArrayList<>());
+    private final QuestsLogger logger = new TestLogger();
+    private final QuestsConfig config = new TestConfig();
+
+    List<String> getWarnings() {
+        return warnings;
+    }
+
+    @Override
+    public QuestsLogger getQuestsLogger() {
+        return logger;
+    }
+
+    @Override
+    public QuestsConfig getQuestsConfig() {
+        return config;
+    }
+
+    @Override
+    public Map<String, Quest> getQuests() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Quests getPlugin() {
+        return null;
+    }
+
+    private final class TestLogger implements QuestsLogger {
+
+        private LoggingLevel serverLoggingLevel = LoggingLevel.DEBUG;
+
+        @Override
+        public LoggingLevel getServerLoggingLevel() {
+            return serverLoggingLevel;
+        }
+
+        @Override
+        public void setServerLoggingLevel(LoggingLevel serverLoggingLevel) {
+            this.serverLoggingLevel = serverLoggingLevel;
+        }
+
+        @Override
+        public void log(String str, LoggingLevel level) {
+            if (level == LoggingLevel.WARNING || level == LoggingLevel.ERROR) {
+                warnings.add(str);
+            }
+        }
+
+        @Override
+        public void debug(String str) {
+            log(str, LoggingLevel.DEBUG);
+        }
+
+        @Override
+        public void info(String str) {
+            log(str, LoggingLevel.INFO);
+        }
+
+        @Override
+        public void warning(String str) {
+            log(str, LoggingLevel.WARNING);
+        }
+
+        @Override
+        public void severe(String str) {
+            log(str, LoggingLevel.ERROR);
+        }
+    }
+
+    private static final class TestConfig implements QuestsConfig {
+
+        @Override
+        public boolean loadConfig() {
+            return true;
+        }
+
+        @Override
+        public String getString(String path) {
+            return null;
+        }
+
+        @Override
+        public String getString(String path, String def) {
+            return def;
+        }
+
+        @Override
+        public boolean getBoolean(String path) {
+            return getBoolean(path, false);
+        }
+
+        @Override
+        public boolean getBoolean(String path, boolean def) {
+            // there are no quests to check progress against
+            if (path.equals("options.verify-quest-exists-on-load")) return false;
+
+            return def;
+        }
+
+        @Override
+        public int getInt(String path) {
+            return 0;
+        }
+
+        @Override
+        public int getInt(String path, int def) {
+            return def;
+        }
+
+        @Override
+        public List<String> getStringList(String path) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getStringList(String path, List<String> def) {
+            return def;
+        }
+    }
+}
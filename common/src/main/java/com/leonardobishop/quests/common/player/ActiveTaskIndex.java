@@ -0,0 +1,147 @@
+package com.leonardobishop.quests.common.player;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.questcontroller.QuestController;
+import com.leonardobishop.quests.common.tasktype.ActiveTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes the tasks of the quests a player has started by task type, so that task types do not have to
+ * iterate through every registered quest. The index is maintained by the {@link QuestController} as quests
+ * are started, completed, cancelled or reset, and is rebuilt when invalidated.
+ * <p>
+ * The index may be read from any thread, such as by task types listening to async events. The list of tasks
+ * of each type is never changed once published; changes replace it with a new list instead, so readers never
+ * see a list part way through being changed. Changes and rebuilds are made while holding the lock of the index.
+ */
+public class ActiveTaskIndex {
+
+    private final Map<String, List<ActiveTask>> tasksByType = new ConcurrentHashMap<>();
+    private final Map<String, Quest> indexedQuests = new HashMap<>();
+    private volatile boolean valid;
+    private volatile long expiresAt = Long.MAX_VALUE;
+
+    /**
+     * Add all tasks of a quest to the index, replacing any tasks which were previously indexed for the quest.
+     *
+     * @param quest the quest to index
+     * @param questProgress the players progress for the quest
+     * @param startCheckRequired whether the quest must be checked as started before its tasks are progressed
+     */
+    public synchronized void index(@NotNull Quest quest, @NotNull QuestProgress questProgress, boolean startCheckRequired) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+        Objects.requireNonNull(questProgress, "questProgress cannot be null");
+
+        remove(quest);
+        Map<String, List<ActiveTask>> addedTasks = new HashMap<>();
+        for (Task task : quest.getTasks()) {
+            ActiveTask activeTask = new ActiveTask(quest, task, questProgress, questProgress.getTaskProgress(task.getId()), startCheckRequired);
+            addedTasks.computeIfAbsent(task.getType(), type -> new ArrayList<>()).add(activeTask);
+        }
+        for (Map.Entry<String, List<ActiveTask>> entry : addedTasks.entrySet()) {
+            List<ActiveTask> activeTasks = new ArrayList<>(tasksByType.getOrDefault(entry.getKey(), Collections.emptyList()));
+            activeTasks.addAll(entry.getValue());
+            tasksByType.put(entry.getKey(), Collections.unmodifiableList(activeTasks));
+        }
+        indexedQuests.put(quest.getId(), quest);
+    }
+
+    /**
+     * Remove all tasks of a quest from the index.
+     *
+     * @param quest the quest to remove
+     */
+    public synchronized void remove(@NotNull Quest quest) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+
+        Quest indexedQuest = indexedQuests.remove(quest.getId());
+        if (indexedQuest == null) return;
+        Set<String> types = new HashSet<>();
+        for (Task task : indexedQuest.getTasks()) {
+            types.add(task.getType());
+        }
+        for (String type : types) {
+            List<ActiveTask> activeTasks = tasksByType.get(type);
+            if (activeTasks == null) continue;
+            List<ActiveTask> remainingTasks = new ArrayList<>(activeTasks.size());
+            for (ActiveTask activeTask : activeTasks) {
+                if (activeTask.getQuest() != indexedQuest) {
+                    remainingTasks.add(activeTask);
+                }
+            }
+            if (remainingTasks.isEmpty()) {
+                tasksByType.remove(type);
+            } else {
+                tasksByType.put(type, Collections.unmodifiableList(remainingTasks));
+            }
+        }
+    }
+
+    /**
+     * Get all indexed tasks of a specific task type. Tasks which have been completed since they were indexed
+     * are still included.
+     *
+     * @param type the task type
+     * @return immutable list of {@link ActiveTask}
+     */
+    public @NotNull List<ActiveTask> getActiveTasks(@NotNull String type) {
+        Objects.requireNonNull(type, "type cannot be null");
+
+        return tasksByType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * Rebuild the index if it is not valid. Only one thread rebuilds the index at a time; other threads wait
+     * for the rebuild to finish, and the index is only marked as valid once it is complete.
+     *
+     * @param rebuild rebuilds the index, such as {@link QuestController#rebuildActiveTaskIndex(QPlayer)}
+     */
+    public synchronized void rebuildIfInvalid(@NotNull Runnable rebuild) {
+        Objects.requireNonNull(rebuild, "rebuild cannot be null");
+
+        if (isValid()) return;
+        expiresAt = Long.MAX_VALUE;
+        rebuild.run();
+        valid = true;
+    }
+
+    /**
+     * Clear the index, ready to be rebuilt.
+     */
+    public synchronized void clear() {
+        tasksByType.clear();
+        indexedQuests.clear();
+    }
+
+    /**
+     * Clear the index and mark it as invalid, so that it is rebuilt the next time it is used.
+     */
+    public synchronized void invalidate() {
+        tasksByType.clear();
+        indexedQuests.clear();
+        valid = false;
+    }
+
+    /**
+     * Mark the index as invalid from a certain time, such as when a quest left out of the index comes off
+     * cooldown. If this is called more than once, the earliest time is used.
+     *
+     * @param time the time in milliseconds since the epoch
+     */
+    public synchronized void expireAt(long time) {
+        expiresAt = Math.min(expiresAt, time);
+    }
+
+    /**
+     * @return whether the index is up to date
+     */
+    public boolean isValid() {
+        long expiresAt = this.expiresAt;
+        return valid && (expiresAt == Long.MAX_VALUE || System.currentTimeMillis() < expiresAt);
+    }
+}
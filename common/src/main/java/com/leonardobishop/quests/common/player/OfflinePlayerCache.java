@@ -0,0 +1,67 @@
+package com.leonardobishop.quests.common.player;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of players who are not online, which have been loaded by tools such as admin commands. Players are
+ * evicted least recently used first once the cache is full, and are not returned once they were loaded longer
+ * ago than the expiry, since they may have been changed elsewhere since (such as another server sharing the
+ * same database).
+ */
+final class OfflinePlayerCache {
+
+    private final Map<UUID, CachedPlayer> players;
+    private final int maximumSize;
+    private final long expiryNanos;
+
+    OfflinePlayerCache(int maximumSize, long expiry, TimeUnit unit) {
+        this.maximumSize = maximumSize;
+        this.expiryNanos = unit.toNanos(expiry);
+        this.players = Collections.synchronizedMap(new LinkedHashMap<UUID, CachedPlayer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedPlayer> eldest) {
+                return size() > maximumSize;
+            }
+        });
+    }
+
+    @Nullable QPlayer get(UUID uuid) {
+        synchronized (players) {
+            CachedPlayer cachedPlayer = players.get(uuid);
+            if (cachedPlayer == null) return null;
+            if (System.nanoTime() - cachedPlayer.loadedAt > expiryNanos) {
+                players.remove(uuid);
+                return null;
+            }
+            return cachedPlayer.qPlayer;
+        }
+    }
+
+    void put(QPlayer qPlayer) {
+        if (maximumSize <= 0) return;
+
+        players.put(qPlayer.getPlayerUUID(), new CachedPlayer(qPlayer, System.nanoTime()));
+    }
+
+    void invalidate(UUID uuid) {
+        players.remove(uuid);
+    }
+
+    void clear() {
+        players.clear();
+    }
+
+    private static final class CachedPlayer {
+
+        private final QPlayer qPlayer;
+        private final long loadedAt;
+
+        private CachedPlayer(QPlayer qPlayer, long loadedAt) {
+            this.qPlayer = qPlayer;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class QPlayer {
     private final UUID uuid;
     private final QPlayerPreferences playerPreferences;
     private final QuestProgressFile questProgressFile;
+    private final ActiveTaskIndex activeTaskIndex;
     private QuestController questController;
 
     public QPlayer(Quests plugin, UUID uuid, QPlayerPreferences playerPreferences, QuestProgressFile questProgressFile, QuestController questController) {
@@ -28,6 +29,7 @@ public class QPlayer {
         this.playerPreferences = playerPreferences;
         this.questProgressFile = questProgressFile;
         this.questController = questController;
+        this.activeTaskIndex = new ActiveTaskIndex();
     }
 
     /**
@@ -123,6 +125,15 @@ public class QPlayer {
         return questProgressFile;
     }
 
+    /**
+     * Get this players associated {@link ActiveTaskIndex}
+     *
+     * @return the active task index
+     */
+    public @NotNull ActiveTaskIndex getActiveTaskIndex() {
+        return activeTaskIndex;
+    }
+
     /**
      * Get this players associated {@link QPlayerPreferences}
      *
@@ -151,6 +162,7 @@ public class QPlayer {
         Objects.requireNonNull(questController, "questController cannot be null");
 
         this.questController = questController;
+        this.activeTaskIndex.invalidate();
     }
 
     @Override //Used by java GC
@@ -4,12 +4,15 @@ import com.leonardobishop.quests.common.logger.QuestsLogger;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.plugin.Quests;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
+import com.leonardobishop.quests.common.storage.SaveQueue;
 import com.leonardobishop.quests.common.storage.StorageProvider;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The QPlayerManager is responsible for keeping a reference to all players on the server and is used to
@@ -18,13 +21,32 @@ import java.util.concurrent.ConcurrentHashMap;
 public class QPlayerManager {
 
     private final Map<UUID, QPlayer> qPlayers = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<QPlayer>> loadingPlayers = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<QPlayer>> loadingOfflinePlayers = new ConcurrentHashMap<>();
+    private final OfflinePlayerCache offlinePlayers;
     private final Quests plugin;
     private final StorageProvider storageProvider;
+    private final SaveQueue saveQueue;
     private QuestController activeQuestController;
 
     public QPlayerManager(Quests plugin, StorageProvider storageProvider, QuestController questController) {
+        this(plugin, storageProvider, questController, 2);
+    }
+
+    public QPlayerManager(Quests plugin, StorageProvider storageProvider, QuestController questController, int saveParallelism) {
+        this(plugin, storageProvider, questController, saveParallelism, 200, 300);
+    }
+
+    /**
+     * @param offlineCacheSize the number of offline players to keep loaded for {@link #loadOfflinePlayerAsync(UUID)}
+     * @param offlineCacheExpiry the time (in seconds) an offline player is kept loaded for
+     */
+    public QPlayerManager(Quests plugin, StorageProvider storageProvider, QuestController questController, int saveParallelism,
+                          int offlineCacheSize, long offlineCacheExpiry) {
         this.plugin = plugin;
         this.storageProvider = storageProvider;
+        this.saveQueue = new SaveQueue(plugin.getQuestsLogger(), storageProvider, saveParallelism);
+        this.offlinePlayers = new OfflinePlayerCache(offlineCacheSize, offlineCacheExpiry, TimeUnit.SECONDS);
         this.activeQuestController = questController;
     }
 
@@ -56,6 +78,7 @@ public class QPlayerManager {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
         plugin.getQuestsLogger().debug("Unloading and saving player " + uuid + ".");
+        offlinePlayers.invalidate(uuid);
         qPlayers.computeIfPresent(uuid, (mapUUID, qPlayer) -> {
             savePlayer(uuid);
             return null;
@@ -77,24 +100,32 @@ public class QPlayerManager {
     }
 
     /**
-     * Schedules a save for the player with a specified {@link QuestProgressFile}. The modified status of the
-     * specified progress file will be reset.
+     * Schedules a save for the player with a specified {@link QuestProgressFile}. Only the modified progress
+     * is copied and handed to the {@link SaveQueue}, and the modified status of the specified progress file
+     * will be reset. If the save cannot be written, the progress is marked as modified again so that it is
+     * written by the next save.
      *
      * @param uuid the uuid of the player
      * @param originalProgressFile the quest progress file to associate with and save
+     * @return a future which completes once the save has been written, or exceptionally if it could not be
      */
-    public void savePlayer(@NotNull UUID uuid, @NotNull QuestProgressFile originalProgressFile) {
+    public CompletableFuture<Void> savePlayer(@NotNull UUID uuid, @NotNull QuestProgressFile originalProgressFile) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(originalProgressFile, "originalProgressFile cannot be null");
 
-        QuestProgressFile clonedProgressFile = new QuestProgressFile(originalProgressFile);
-        originalProgressFile.resetModified();
-        plugin.getScheduler().doAsync(() -> save(uuid, clonedProgressFile));
+        QuestProgressFile clonedProgressFile = originalProgressFile.takeModified();
+        CompletableFuture<Void> future = saveQueue.submit(uuid, clonedProgressFile);
+        future.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                originalProgressFile.restoreModified(clonedProgressFile);
+            }
+        });
+        return future;
     }
 
     /**
      * Immediately saves the player with the {@link QuestProgressFile} associated by the {@link QPlayerManager},
-     * on the same thread. The modified status of the specified progress file is not changed.
+     * waiting for the save to be written. The modified status of the specified progress file is not changed.
      *
      * @param uuid the uuid of the player
      */
@@ -107,22 +138,19 @@ public class QPlayerManager {
     }
 
     /**
-     * Immediately saves the player with a specified {@link QuestProgressFile}, on the same thread. The modified status
-     * of the specified progress file is not changed.
+     * Immediately saves the player with a specified {@link QuestProgressFile}, waiting for the save to be written.
+     * Any saves already queued for the player are written first. The modified status of the specified progress
+     * file is not changed.
      *
      * @param uuid the uuid of the player
      * @param questProgressFile the quest progress file to associate with and save
+     * @throws java.util.concurrent.CompletionException if the save could not be written
      */
     public void savePlayerSync(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
-        save(uuid, questProgressFile);
-    }
-
-    private void save(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        plugin.getQuestsLogger().debug("Saving player " + uuid + ".");
-        storageProvider.saveProgressFile(uuid, questProgressFile);
+        saveQueue.submit(uuid, questProgressFile.copyModified()).join();
     }
 
     /**
@@ -134,6 +162,7 @@ public class QPlayerManager {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
         plugin.getQuestsLogger().debug("Dropping player " + uuid + ".");
+        offlinePlayers.invalidate(uuid);
         qPlayers.remove(uuid);
     }
 
@@ -148,17 +177,166 @@ public class QPlayerManager {
 
     /**
      * Load the player if they exist, otherwise create a new {@link QuestProgressFile}.
-     * This will have no effect if player is already loaded. Can be invoked asynchronously.
+     * This will have no effect if player is already loaded. This blocks until the player has been loaded,
+     * so should not be invoked on the main thread; see {@link #loadPlayerAsync(UUID)}.
      *
      * @param uuid the uuid of the player
      */
     public void loadPlayer(UUID uuid) {
-        plugin.getQuestsLogger().debug("Loading player " + uuid + ".");
-        qPlayers.computeIfAbsent(uuid, s -> {
-            QuestProgressFile questProgressFile = storageProvider.loadProgressFile(uuid);
-            if (questProgressFile == null) return null;
-            return new QPlayer(plugin, uuid, new QPlayerPreferences(null), questProgressFile, activeQuestController);
-        });
+        CompletableFuture<QPlayer> future = new CompletableFuture<>();
+        CompletableFuture<QPlayer> existing = loadingPlayers.putIfAbsent(uuid, future);
+        if (existing != null) {
+            existing.join();
+            return;
+        }
+        load(uuid, future);
+    }
+
+    /**
+     * Load the player in the background if they exist, otherwise create a new {@link QuestProgressFile}.
+     * If the player is already being loaded, the same future is returned rather than loading them twice.
+     * The future is completed on an async thread, so anything which must run on the main thread should be
+     * scheduled from it.
+     *
+     * @param uuid the uuid of the player
+     * @return a future of the loaded player, which completes with null if they could not be loaded
+     */
+    public @NotNull CompletableFuture<QPlayer> loadPlayerAsync(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        QPlayer qPlayer = qPlayers.get(uuid);
+        if (qPlayer != null) {
+            return CompletableFuture.completedFuture(qPlayer);
+        }
+
+        CompletableFuture<QPlayer> future = new CompletableFuture<>();
+        CompletableFuture<QPlayer> existing = loadingPlayers.putIfAbsent(uuid, future);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            plugin.getScheduler().doAsync(() -> load(uuid, future));
+        } catch (RuntimeException e) {
+            loadingPlayers.remove(uuid, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void load(UUID uuid, CompletableFuture<QPlayer> future) {
+        try {
+            QPlayer qPlayer = qPlayers.get(uuid);
+            if (qPlayer == null) {
+                plugin.getQuestsLogger().debug("Loading player " + uuid + ".");
+                offlinePlayers.invalidate(uuid);
+                awaitSave(uuid);
+                // the storage provider is called outside of the map, so that other players are not held up by it
+                QuestProgressFile questProgressFile = storageProvider.loadProgressFile(uuid);
+                if (questProgressFile != null) {
+                    qPlayer = qPlayers.computeIfAbsent(uuid, s -> new QPlayer(plugin, uuid, new QPlayerPreferences(null), questProgressFile, activeQuestController));
+                }
+            }
+            loadingPlayers.remove(uuid, future);
+            future.complete(qPlayer);
+        } catch (Throwable t) {
+            loadingPlayers.remove(uuid, future);
+            future.completeExceptionally(t);
+            if (t instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void awaitSave(UUID uuid) throws InterruptedException {
+        if (!saveQueue.awaitPlayer(uuid, 10, TimeUnit.SECONDS)) {
+            plugin.getQuestsLogger().warning("Timed out waiting for the last save of player " + uuid + " before loading them.");
+        }
+    }
+
+    /**
+     * Get a player for tools which inspect or modify players who may not be online, such as admin commands.
+     * If the player is not loaded, they are loaded in the background and kept in a cache of offline players,
+     * separate from online players, until they are evicted or join. Since cached players are shared by later
+     * lookups, changes to them should be saved straight away with {@link #savePlayer(UUID, QuestProgressFile)}, which
+     * also resets their modified state so that later saves only write what has changed since.
+     * The future is completed on an async thread unless the player was already loaded.
+     *
+     * @param uuid the uuid of the player
+     * @return a future of the player, which completes with null if they could not be loaded
+     */
+    public @NotNull CompletableFuture<QPlayer> loadOfflinePlayerAsync(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        QPlayer qPlayer = qPlayers.get(uuid);
+        if (qPlayer == null) {
+            qPlayer = offlinePlayers.get(uuid);
+        }
+        if (qPlayer != null) {
+            return CompletableFuture.completedFuture(qPlayer);
+        }
+
+        CompletableFuture<QPlayer> future = new CompletableFuture<>();
+        CompletableFuture<QPlayer> existing = loadingOfflinePlayers.putIfAbsent(uuid, future);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            plugin.getScheduler().doAsync(() -> loadOffline(uuid, future));
+        } catch (RuntimeException e) {
+            loadingOfflinePlayers.remove(uuid, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void loadOffline(UUID uuid, CompletableFuture<QPlayer> future) {
+        try {
+            QPlayer qPlayer = qPlayers.get(uuid);
+            if (qPlayer == null) {
+                plugin.getQuestsLogger().debug("Loading offline player " + uuid + ".");
+                awaitSave(uuid);
+                QuestProgressFile questProgressFile = storageProvider.loadProgressFile(uuid);
+                if (questProgressFile != null) {
+                    qPlayer = new QPlayer(plugin, uuid, new QPlayerPreferences(null), questProgressFile, activeQuestController);
+                    offlinePlayers.put(qPlayer);
+                }
+            }
+            loadingOfflinePlayers.remove(uuid, future);
+            future.complete(qPlayer);
+        } catch (Throwable t) {
+            loadingOfflinePlayers.remove(uuid, future);
+            future.completeExceptionally(t);
+            if (t instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Load many players at once, such as those already online when the plugin is enabled. Players which
+     * are already loaded are skipped. Can be invoked asynchronously.
+     *
+     * @param uuids the uuids of the players
+     */
+    public void loadPlayers(@NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids cannot be null");
+
+        List<UUID> unloaded = new ArrayList<>();
+        for (UUID uuid : uuids) {
+            if (!qPlayers.containsKey(uuid)) {
+                unloaded.add(uuid);
+            }
+        }
+        if (unloaded.isEmpty()) return;
+
+        plugin.getQuestsLogger().debug("Loading " + unloaded.size() + " player(s).");
+        for (UUID uuid : unloaded) {
+            offlinePlayers.invalidate(uuid);
+        }
+        Map<UUID, QuestProgressFile> questProgressFiles = storageProvider.loadProgressFiles(unloaded);
+        for (Map.Entry<UUID, QuestProgressFile> entry : questProgressFiles.entrySet()) {
+            qPlayers.computeIfAbsent(entry.getKey(), uuid -> new QPlayer(plugin, uuid, new QPlayerPreferences(null), entry.getValue(), activeQuestController));
+        }
     }
 
     /**
@@ -170,12 +348,22 @@ public class QPlayerManager {
         return storageProvider;
     }
 
+    /**
+     * Gets the queue which players are saved through.
+     *
+     * @return {@link SaveQueue}
+     */
+    public SaveQueue getSaveQueue() {
+        return saveQueue;
+    }
+
     public QuestController getActiveQuestController() {
         return activeQuestController;
     }
 
     public void setActiveQuestController(QuestController activeQuestController) {
         this.activeQuestController = activeQuestController;
+        offlinePlayers.clear();
         for (QPlayer qPlayer : qPlayers.values()) {
             qPlayer.setQuestController(activeQuestController);
         }
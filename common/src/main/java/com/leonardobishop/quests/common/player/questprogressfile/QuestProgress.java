@@ -1,17 +1,21 @@
 package com.leonardobishop.quests.common.player.questprogressfile;
 
 import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class QuestProgress {
 
     private final Quests plugin;
 
-    private final Map<String, TaskProgress> taskProgress = new HashMap<>();
+    private final Map<String, TaskProgress> taskProgress = new ConcurrentHashMap<>();
+    // written by whichever thread makes progress, and drained by the main thread when saving
+    private final Set<String> modifiedTasks = ConcurrentHashMap.newKeySet();
     private final String questid;
     private final UUID player;
 
@@ -19,9 +23,17 @@ public class QuestProgress {
     private boolean completed;
     private boolean completedBefore;
     private long completionDate;
-    private boolean modified;
+    private volatile boolean modified;
+    private QuestProgressFile linkedProgressFile;
+    // the number of tasks of countedQuest which are not completed, counted again if the quest is reloaded
+    private Quest countedQuest;
+    private int incompleteTasks;
 
-    public QuestProgress(Quests plugin, String questid, boolean completed, boolean completedBefore, long completionDate, UUID player, boolean started) {
+    /**
+     * @param plugin the plugin, or null if the progress is only read and written by storage providers, in
+     *               which case completing its tasks does not queue it for completion
+     */
+    public QuestProgress(@Nullable Quests plugin, String questid, boolean completed, boolean completedBefore, long completionDate, UUID player, boolean started) {
         this.plugin = plugin;
         this.questid = questid;
         this.completed = completed;
@@ -31,7 +43,7 @@ public class QuestProgress {
         this.started = started;
     }
 
-    public QuestProgress(Quests plugin, String questid, boolean completed, boolean completedBefore, long completionDate, UUID player, boolean started, boolean modified) {
+    public QuestProgress(@Nullable Quests plugin, String questid, boolean completed, boolean completedBefore, long completionDate, UUID player, boolean started, boolean modified) {
         this(plugin, questid, completed, completedBefore, completionDate, player, started);
         this.modified = modified;
     }
@@ -48,6 +60,90 @@ public class QuestProgress {
         this.completedBefore = questProgress.completedBefore;
         this.completionDate = questProgress.completionDate;
         this.modified = questProgress.modified;
+        this.modifiedTasks.addAll(questProgress.modifiedTasks);
+    }
+
+    /**
+     * Create a copy of this quest progress containing only the task progress which has been modified since it
+     * was last saved.
+     *
+     * @return a copy of the modified progress
+     */
+    QuestProgress copyModified() {
+        QuestProgress copy = new QuestProgress(plugin, questid, completed, completedBefore, completionDate, player, started, modified);
+        for (String taskId : modifiedTasks) {
+            TaskProgress progress = taskProgress.get(taskId);
+            if (progress != null) {
+                copy.taskProgress.put(taskId, new TaskProgress(progress));
+                copy.modifiedTasks.add(taskId);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Create a copy of this quest progress containing only the task progress which has been modified since it
+     * was last saved, and reset the modified status of what was copied. Each modified status is reset before its
+     * progress is copied, so changes made meanwhile by another thread are marked again rather than lost.
+     *
+     * @return a copy of the modified progress
+     */
+    QuestProgress takeModified() {
+        boolean stateModified = modified;
+        this.modified = false;
+        QuestProgress copy = new QuestProgress(plugin, questid, completed, completedBefore, completionDate, player, started, stateModified);
+        for (Iterator<String> iterator = modifiedTasks.iterator(); iterator.hasNext(); ) {
+            String taskId = iterator.next();
+            iterator.remove();
+            TaskProgress progress = taskProgress.get(taskId);
+            if (progress != null) {
+                copy.taskProgress.put(taskId, progress.takeModified());
+                copy.modifiedTasks.add(taskId);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Mark the progress in a copy obtained by {@link #takeModified()} as modified again. Each modified status
+     * is set before the progress is added to the modified set, so that it cannot be taken in between and left
+     * set without being saved.
+     *
+     * @param copy the copy
+     */
+    void restoreModified(QuestProgress copy) {
+        if (copy.modified) {
+            this.modified = true;
+        }
+        for (String taskId : copy.modifiedTasks) {
+            TaskProgress progress = taskProgress.get(taskId);
+            if (progress != null) {
+                progress.restoreModified();
+                modifiedTasks.add(taskId);
+            }
+        }
+    }
+
+    /**
+     * Merge the modified progress of a newer copy of this quest progress into this one. The state of the
+     * quest is taken from the newer copy, as is any task progress it has modified.
+     *
+     * @param newer the newer copy
+     */
+    void mergeModified(QuestProgress newer) {
+        this.started = newer.started;
+        this.completed = newer.completed;
+        this.completedBefore = newer.completedBefore;
+        this.completionDate = newer.completionDate;
+        this.modified |= newer.modified;
+        for (String taskId : newer.modifiedTasks) {
+            TaskProgress progress = newer.taskProgress.get(taskId);
+            if (progress != null) {
+                taskProgress.put(taskId, progress);
+                modifiedTasks.add(taskId);
+            }
+        }
+        this.countedQuest = null;
     }
 
     public String getQuestId() {
@@ -60,7 +156,7 @@ public class QuestProgress {
 
     public void setCompleted(boolean completed) {
         this.completed = completed;
-        this.modified = true;
+        markModified();
     }
 
     public boolean isStarted() {
@@ -69,7 +165,7 @@ public class QuestProgress {
 
     public void setStarted(boolean started) {
         this.started = started;
-        this.modified = true;
+        markModified();
     }
 
     public long getCompletionDate() {
@@ -78,7 +174,7 @@ public class QuestProgress {
 
     public void setCompletionDate(long completionDate) {
         this.completionDate = completionDate;
-        this.modified = true;
+        markModified();
     }
 
     public UUID getPlayer() {
@@ -91,11 +187,15 @@ public class QuestProgress {
 
     public void setCompletedBefore(boolean completedBefore) {
         this.completedBefore = completedBefore;
-        this.modified = true;
+        markModified();
     }
 
     public void addTaskProgress(TaskProgress taskProgress) {
         this.taskProgress.put(taskProgress.getTaskId(), taskProgress);
+        this.countedQuest = null;
+        if (taskProgress.isModified()) {
+            markTaskModified(taskProgress);
+        }
     }
 
     public Collection<TaskProgress> getTaskProgress() {
@@ -120,13 +220,78 @@ public class QuestProgress {
         this.addTaskProgress(taskProgress);
     }
 
+    /**
+     * @return whether this quest progress, or any of its task progress, has been modified since it was last saved
+     */
     public boolean isModified() {
-        if (modified) return true;
-        else {
-            for (TaskProgress progress : this.taskProgress.values()) {
-                if (progress.isModified()) return true;
+        return modified || !modifiedTasks.isEmpty();
+    }
+
+    /**
+     * Get the task progress which has been modified since it was last saved.
+     *
+     * @return {@code List<TaskProgress>} modified task progress
+     */
+    public List<TaskProgress> getModifiedTaskProgress() {
+        List<TaskProgress> modifiedTaskProgress = new ArrayList<>(modifiedTasks.size());
+        for (String taskId : modifiedTasks) {
+            TaskProgress progress = this.taskProgress.get(taskId);
+            if (progress != null) {
+                modifiedTaskProgress.add(progress);
             }
-            return false;
+        }
+        return modifiedTaskProgress;
+    }
+
+    /**
+     * Check whether every task of a quest has been completed. The incomplete tasks are counted once for each
+     * definition of the quest, and the count is then kept up to date as task progress is completed, so this does
+     * not need to check each task.
+     *
+     * @param quest the quest this is the progress of
+     * @return whether all tasks are completed
+     */
+    public boolean hasCompletedAllTasks(@NotNull Quest quest) {
+        Objects.requireNonNull(quest, "quest cannot be null");
+
+        if (countedQuest != quest) {
+            countIncompleteTasks(quest);
+        }
+        return incompleteTasks == 0;
+    }
+
+    private void countIncompleteTasks(Quest quest) {
+        int incomplete = 0;
+        for (Task task : quest.getTasks()) {
+            TaskProgress progress = taskProgress.get(task.getId());
+            if (progress == null || !progress.isCompleted()) {
+                incomplete++;
+            }
+        }
+        this.incompleteTasks = incomplete;
+        this.countedQuest = quest;
+    }
+
+    /**
+     * Update the count of incomplete tasks after task progress has been completed or uncompleted, and queue the
+     * quest for completion once its last incomplete task has been completed.
+     */
+    void taskCompletionChanged(TaskProgress taskProgress) {
+        if (plugin == null || this.taskProgress.get(taskProgress.getTaskId()) != taskProgress) return;
+
+        Quest quest = plugin.getQuestManager().getQuestById(questid);
+        if (quest == null) return;
+
+        if (countedQuest == quest) {
+            if (quest.getTaskById(taskProgress.getTaskId()) != null) {
+                incompleteTasks += taskProgress.isCompleted() ? -1 : 1;
+            }
+        } else {
+            countIncompleteTasks(quest);
+        }
+
+        if (taskProgress.isCompleted() && incompleteTasks == 0) {
+            queueForCompletionTest();
         }
     }
 
@@ -136,8 +301,38 @@ public class QuestProgress {
 
     public void resetModified() {
         this.modified = false;
-        for (TaskProgress progress : this.taskProgress.values()) {
-            progress.resetModified();
+        for (Iterator<String> iterator = modifiedTasks.iterator(); iterator.hasNext(); ) {
+            String taskId = iterator.next();
+            iterator.remove();
+            TaskProgress progress = this.taskProgress.get(taskId);
+            if (progress != null) {
+                progress.resetModified();
+            }
+        }
+    }
+
+    void markAllModified() {
+        this.modified = true;
+        modifiedTasks.addAll(taskProgress.keySet());
+    }
+
+    void setLinkedProgressFile(QuestProgressFile linkedProgressFile) {
+        this.linkedProgressFile = linkedProgressFile;
+    }
+
+    void markTaskModified(TaskProgress taskProgress) {
+        if (this.taskProgress.get(taskProgress.getTaskId()) != taskProgress) return;
+
+        modifiedTasks.add(taskProgress.getTaskId());
+        if (linkedProgressFile != null) {
+            linkedProgressFile.markQuestModified(this);
+        }
+    }
+
+    private void markModified() {
+        this.modified = true;
+        if (linkedProgressFile != null) {
+            linkedProgressFile.markQuestStateChanged(this);
         }
     }
 }
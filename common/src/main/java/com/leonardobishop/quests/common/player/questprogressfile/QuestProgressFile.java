@@ -1,11 +1,15 @@
 package com.leonardobishop.quests.common.player.questprogressfile;
 
+import com.leonardobishop.quests.common.enums.QuestStartResult;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.plugin.Quests;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -13,11 +17,20 @@ import java.util.concurrent.TimeUnit;
  */
 public class QuestProgressFile {
 
-    private final Map<String, QuestProgress> questProgress = new HashMap<>();
+    private final Map<String, QuestProgress> questProgress = new ConcurrentHashMap<>();
+    // written by whichever thread makes progress, and drained by the main thread when saving
+    private final Set<String> modifiedQuests = ConcurrentHashMap.newKeySet();
+    private final Map<String, CachedStartResult> startResults = new HashMap<>();
+    private final Set<String> startedQuests = new LinkedHashSet<>();
     private final UUID playerUUID;
     private final Quests plugin;
 
-    public QuestProgressFile(UUID playerUUID, Quests plugin) {
+    /**
+     * @param playerUUID the uuid of the player
+     * @param plugin the plugin, or null if the progress is only read and written by storage providers, in
+     *               which case nothing which looks up quests can be used
+     */
+    public QuestProgressFile(UUID playerUUID, @Nullable Quests plugin) {
         this.playerUUID = playerUUID;
         this.plugin = plugin;
     }
@@ -26,16 +39,108 @@ public class QuestProgressFile {
         for (Map.Entry<String, QuestProgress> progressEntry : questProgressFile.questProgress.entrySet()) {
             questProgress.put(progressEntry.getKey(), new QuestProgress(progressEntry.getValue()));
         }
+        this.modifiedQuests.addAll(questProgressFile.modifiedQuests);
+        this.startedQuests.addAll(questProgressFile.startedQuests);
         this.playerUUID = questProgressFile.playerUUID;
         this.plugin = questProgressFile.plugin;
     }
 
+    /**
+     * Create a copy of this file containing only the progress which has been modified since it was last saved,
+     * so that it can be handed to a {@link com.leonardobishop.quests.common.storage.StorageProvider} on
+     * another thread. The cost of this is proportional to what has changed rather than the size of the file.
+     *
+     * @return a copy of the modified progress
+     */
+    public QuestProgressFile copyModified() {
+        QuestProgressFile copy = new QuestProgressFile(playerUUID, plugin);
+        for (String questId : modifiedQuests) {
+            QuestProgress progress = questProgress.get(questId);
+            if (progress != null) {
+                copy.questProgress.put(questId, progress.copyModified());
+                copy.modifiedQuests.add(questId);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Create a copy of this file containing only the progress which has been modified since it was last saved,
+     * and reset the modified status of what was copied. Unlike calling {@link #copyModified()} and then
+     * {@link #resetModified()}, progress modified by another thread in between is not lost, as it is marked
+     * again and saved the next time.
+     *
+     * @return a copy of the modified progress
+     */
+    public QuestProgressFile takeModified() {
+        QuestProgressFile copy = new QuestProgressFile(playerUUID, plugin);
+        for (Iterator<String> iterator = modifiedQuests.iterator(); iterator.hasNext(); ) {
+            String questId = iterator.next();
+            iterator.remove();
+            QuestProgress progress = questProgress.get(questId);
+            if (progress != null) {
+                copy.questProgress.put(questId, progress.takeModified());
+                copy.modifiedQuests.add(questId);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Mark the progress in a copy obtained by {@link #takeModified()} as modified again, such as when the copy
+     * could not be saved, so that it is written by the next save. The progress in this file is kept, as it is
+     * at least as new as the copy.
+     *
+     * @param copy the copy
+     */
+    public void restoreModified(QuestProgressFile copy) {
+        for (String questId : copy.modifiedQuests) {
+            QuestProgress progress = questProgress.get(questId);
+            QuestProgress copiedProgress = copy.questProgress.get(questId);
+            if (progress == null || copiedProgress == null) continue;
+
+            progress.restoreModified(copiedProgress);
+            modifiedQuests.add(questId);
+        }
+    }
+
+    /**
+     * Merge the modified progress of a newer copy, obtained by {@link #copyModified()}, into this one so
+     * that both can be saved with a single write. Where both contain the same progress, the newer wins.
+     * The newer copy should not be used afterwards.
+     *
+     * @param newer the newer copy
+     */
+    public void mergeModified(QuestProgressFile newer) {
+        for (String questId : newer.modifiedQuests) {
+            QuestProgress newerProgress = newer.questProgress.get(questId);
+            if (newerProgress == null) continue;
+
+            QuestProgress progress = questProgress.get(questId);
+            if (progress == null) {
+                questProgress.put(questId, newerProgress);
+            } else {
+                progress.mergeModified(newerProgress);
+            }
+            modifiedQuests.add(questId);
+            updateStarted(questProgress.get(questId));
+        }
+    }
+
     public void addQuestProgress(QuestProgress questProgress) {
         //TODO don't do here
 //        if (Options.VERIFY_QUEST_EXISTS_ON_LOAD.getBooleanValue(true) && plugin.getQuestManager().getQuestById(questProgress.getQuestId()) == null) {
 //            return;
 //        }
         this.questProgress.put(questProgress.getQuestId(), questProgress);
+        questProgress.setLinkedProgressFile(this);
+        startResults.clear();
+        updateStarted(questProgress);
+        if (questProgress.isModified()) {
+            modifiedQuests.add(questProgress.getQuestId());
+        } else {
+            modifiedQuests.remove(questProgress.getQuestId());
+        }
     }
 
     /**
@@ -46,15 +151,36 @@ public class QuestProgressFile {
      * @return list of started quests
      */
     public List<Quest> getStartedQuests() {
-        List<Quest> startedQuests = new ArrayList<>();
-        for (QuestProgress questProgress : questProgress.values()) {
-            if (questProgress.isStarted()) {
-                startedQuests.add(plugin.getQuestManager().getQuestById(questProgress.getQuestId()));
+        List<Quest> startedQuests = new ArrayList<>(this.startedQuests.size());
+        for (String questId : this.startedQuests) {
+            Quest quest = plugin.getQuestManager().getQuestById(questId);
+            if (quest != null) {
+                startedQuests.add(quest);
             }
         }
         return startedQuests;
     }
 
+    /**
+     * Gets the number of started quests, which is kept as quests are started and stopped rather than counted.
+     * As with {@link #getStartedQuests()}, this does not include quests started automatically by autostart.
+     *
+     * @return number of started quests
+     */
+    public int getStartedQuestCount() {
+        return startedQuests.size();
+    }
+
+    /**
+     * Checks whether a quest has been started, without generating progress for it.
+     *
+     * @param quest the quest to check
+     * @return true if the quest is started
+     */
+    public boolean isQuestStarted(Quest quest) {
+        return startedQuests.contains(quest.getId());
+    }
+
     /**
      * Returns all {@link Quest} a player has encountered
      * (not to be confused with a collection of quest progress)
@@ -117,6 +243,30 @@ public class QuestProgressFile {
         return questProgress.values();
     }
 
+    /**
+     * @return whether any progress in this file has been modified since it was last saved
+     */
+    public boolean isModified() {
+        return !modifiedQuests.isEmpty();
+    }
+
+    /**
+     * Gets the quest progress which has been modified since it was last saved. Storage providers
+     * should use this to write only what has changed.
+     *
+     * @return {@code List<QuestProgress>} modified quest progress
+     */
+    public List<QuestProgress> getModifiedQuestProgress() {
+        List<QuestProgress> modifiedQuestProgress = new ArrayList<>(modifiedQuests.size());
+        for (String questId : modifiedQuests) {
+            QuestProgress progress = questProgress.get(questId);
+            if (progress != null) {
+                modifiedQuestProgress.add(progress);
+            }
+        }
+        return modifiedQuestProgress;
+    }
+
     /**
      * Checks whether or not the player has {@link QuestProgress} for a specified quest
      *
@@ -190,23 +340,87 @@ public class QuestProgressFile {
     }
 
     /**
-     * Generate a new blank {@link QuestProgress} for a specified {@code quest}.
-     * Has no effect if there is already an existing {@link QuestProgress} for {@code quest}.
+     * Get the {@link QuestProgress} for a specified {@link Quest} without generating it if it does not exist.
+     *
+     * @param quest the quest to get progress for
+     * @return {@link QuestProgress} or null if the player has no progress for the quest
+     */
+    public @Nullable QuestProgress getExistingQuestProgress(Quest quest) {
+        return questProgress.get(quest.getId());
+    }
+
+    /**
+     * Generate a new blank {@link QuestProgress} for a specified {@code quest}, replacing any existing
+     * {@link QuestProgress} for {@code quest}. Replaced progress is marked as modified so that the reset is saved.
      *
      * @param quest the quest to generate progress for
      */
     public void generateBlankQuestProgress(Quest quest) {
-        QuestProgress questProgress = new QuestProgress(plugin, quest.getId(), false, false, 0, playerUUID, false, false);
+        boolean replacing = this.questProgress.containsKey(quest.getId());
+        QuestProgress questProgress = new QuestProgress(plugin, quest.getId(), false, false, 0, playerUUID, false, replacing);
         for (Task task : quest.getTasks()) {
-            TaskProgress taskProgress = new TaskProgress(questProgress, task.getId(), null, playerUUID, false, false);
+            TaskProgress taskProgress = new TaskProgress(questProgress, task.getId(), null, playerUUID, false, replacing);
             questProgress.addTaskProgress(taskProgress);
         }
 
         addQuestProgress(questProgress);
     }
 
+    /**
+     * Reset all progress in this file to blank progress, as if the player had never started any quest. Unlike
+     * {@link #clear()}, the blank progress replaces what is stored for the player when this file is next saved.
+     */
+    public void reset() {
+        for (QuestProgress progress : new ArrayList<>(questProgress.values())) {
+            QuestProgress blankProgress = new QuestProgress(plugin, progress.getQuestId(), false, false, 0, playerUUID, false, true);
+            for (String taskId : progress.getTaskProgressMap().keySet()) {
+                blankProgress.addTaskProgress(new TaskProgress(blankProgress, taskId, null, playerUUID, false, true));
+            }
+            addQuestProgress(blankProgress);
+        }
+    }
+
     public void clear() {
         questProgress.clear();
+        modifiedQuests.clear();
+        startResults.clear();
+        startedQuests.clear();
+    }
+
+    /**
+     * Get the remembered result of checking this file before starting a quest, as given to
+     * {@link #cacheStartResult(Quest, QuestStartResult, long)}. Results are forgotten whenever the state of any
+     * quest in this file changes, since requirements depend on the progress of other quests.
+     *
+     * @param quest the quest to get the result for
+     * @return the result, or null if there is none or it has expired
+     */
+    public @Nullable QuestStartResult getCachedStartResult(@NotNull Quest quest) {
+        CachedStartResult cachedResult = startResults.get(quest.getId());
+        if (cachedResult == null || cachedResult.quest != quest || System.currentTimeMillis() >= cachedResult.expiresAt) {
+            return null;
+        }
+        return cachedResult.result;
+    }
+
+    /**
+     * Remember the result of checking this file before starting a quest. This should only be the result of
+     * checks which depend on the progress in this file.
+     *
+     * @param quest the quest the result is for
+     * @param result the result
+     * @param expiresAt when the result may change even if the progress does not, such as when a cooldown ends,
+     *                  in milliseconds since the epoch, or {@link Long#MAX_VALUE}
+     */
+    public void cacheStartResult(@NotNull Quest quest, @NotNull QuestStartResult result, long expiresAt) {
+        startResults.put(quest.getId(), new CachedStartResult(quest, result, expiresAt));
+    }
+
+    /**
+     * Forget all remembered results of checking this file before starting a quest.
+     */
+    public void invalidateStartResults() {
+        startResults.clear();
     }
 
     /**
@@ -235,13 +449,66 @@ public class QuestProgressFile {
             }
             for (String questId : invalidQuests) {
                 this.questProgress.remove(questId);
+                startedQuests.remove(questId);
             }
+            startResults.clear();
         }
     }
 
     public void resetModified() {
-        for (QuestProgress questProgress : questProgress.values()) {
-            questProgress.resetModified();
+        for (Iterator<String> iterator = modifiedQuests.iterator(); iterator.hasNext(); ) {
+            String questId = iterator.next();
+            iterator.remove();
+            QuestProgress progress = questProgress.get(questId);
+            if (progress != null) {
+                progress.resetModified();
+            }
+        }
+    }
+
+    /**
+     * Mark all progress in this file as modified, so that all of it is written by the next save. This is
+     * used when copying a player to another {@link com.leonardobishop.quests.common.storage.StorageProvider}.
+     */
+    public void markAllModified() {
+        for (QuestProgress progress : questProgress.values()) {
+            progress.markAllModified();
+            modifiedQuests.add(progress.getQuestId());
+        }
+    }
+
+    void markQuestModified(QuestProgress questProgress) {
+        if (this.questProgress.get(questProgress.getQuestId()) != questProgress) return;
+
+        modifiedQuests.add(questProgress.getQuestId());
+    }
+
+    void markQuestStateChanged(QuestProgress questProgress) {
+        if (this.questProgress.get(questProgress.getQuestId()) != questProgress) return;
+
+        startResults.clear();
+        updateStarted(questProgress);
+        markQuestModified(questProgress);
+    }
+
+    private void updateStarted(QuestProgress questProgress) {
+        if (questProgress.isStarted()) {
+            startedQuests.add(questProgress.getQuestId());
+        } else {
+            startedQuests.remove(questProgress.getQuestId());
+        }
+    }
+
+    private static final class CachedStartResult {
+
+        private final Quest quest;
+        private final QuestStartResult result;
+        private final long expiresAt;
+
+        private CachedStartResult(Quest quest, QuestStartResult result, long expiresAt) {
+            this.quest = quest;
+            this.result = result;
+            this.expiresAt = expiresAt;
         }
     }
 
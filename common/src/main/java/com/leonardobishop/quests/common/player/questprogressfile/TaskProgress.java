@@ -1,5 +1,8 @@
 package com.leonardobishop.quests.common.player.questprogressfile;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
 import java.util.UUID;
 
 public class TaskProgress {
@@ -8,16 +11,19 @@ public class TaskProgress {
     private final UUID player;
 
     private QuestProgress linkedQuestProgress;
-    private boolean modified;
-    private Object progress;
+    private volatile boolean modified;
+    private ProgressType progressType = ProgressType.NONE;
+    private long longProgress;
+    private double doubleProgress;
+    private Object objectProgress;
     private boolean completed;
 
     public TaskProgress(QuestProgress linkedQuestProgress, String taskid, Object progress, UUID player, boolean completed) {
         this.linkedQuestProgress = linkedQuestProgress;
         this.taskid = taskid;
-        this.progress = progress;
         this.player = player;
         this.completed = completed;
+        storeProgress(progress);
     }
 
     public TaskProgress(QuestProgress linkedQuestProgress, String taskid, Object progress, UUID player, boolean completed, boolean modified) {
@@ -29,7 +35,10 @@ public class TaskProgress {
         this.taskid = taskProgress.taskid;
         this.player = taskProgress.player;
         this.modified = taskProgress.modified;
-        this.progress = taskProgress.progress;
+        this.progressType = taskProgress.progressType;
+        this.longProgress = taskProgress.longProgress;
+        this.doubleProgress = taskProgress.doubleProgress;
+        this.objectProgress = taskProgress.objectProgress;
         this.completed = taskProgress.completed;
     }
 
@@ -37,14 +46,180 @@ public class TaskProgress {
         return taskid;
     }
 
+    /**
+     * Get the progress of this task as an object. Numeric progress is boxed into the type it was set with;
+     * task types which progress numerically should prefer the typed accessors such as {@link #getIntProgress()}.
+     *
+     * @return progress, or null if there is none
+     */
     public Object getProgress() {
-        return progress;
+        switch (progressType) {
+            case INTEGER:
+                return (int) longProgress;
+            case LONG:
+                return longProgress;
+            case FLOAT:
+                return (float) doubleProgress;
+            case DOUBLE:
+                return doubleProgress;
+            case OBJECT:
+                return objectProgress;
+            default:
+                return null;
+        }
     }
 
+    /**
+     * Set the progress of this task as an object. Integers, longs, floats and doubles are stored unboxed.
+     *
+     * @param progress progress, or null
+     */
     public void setProgress(Object progress) {
-        if (this.progress != progress) this.modified = true;
+        ProgressType previousType = progressType;
+        long previousLong = longProgress;
+        double previousDouble = doubleProgress;
+        Object previousObject = objectProgress;
+
+        storeProgress(progress);
+
+        if (progressType != previousType
+                || longProgress != previousLong
+                || Double.compare(doubleProgress, previousDouble) != 0
+                || !Objects.equals(objectProgress, previousObject)) {
+            markModified();
+        }
+    }
+
+    private void storeProgress(Object progress) {
+        longProgress = 0;
+        doubleProgress = 0;
+        objectProgress = null;
+        if (progress == null) {
+            progressType = ProgressType.NONE;
+        } else if (progress instanceof Integer) {
+            progressType = ProgressType.INTEGER;
+            longProgress = (Integer) progress;
+        } else if (progress instanceof Long) {
+            progressType = ProgressType.LONG;
+            longProgress = (Long) progress;
+        } else if (progress instanceof Float) {
+            progressType = ProgressType.FLOAT;
+            doubleProgress = (Float) progress;
+        } else if (progress instanceof Double) {
+            progressType = ProgressType.DOUBLE;
+            doubleProgress = (Double) progress;
+        } else {
+            progressType = ProgressType.OBJECT;
+            objectProgress = progress;
+        }
+    }
+
+    /**
+     * @return the type of progress currently stored
+     */
+    public @NotNull ProgressType getProgressType() {
+        return progressType;
+    }
+
+    /**
+     * Get the progress of this task as an int, converting from other numeric types if necessary.
+     *
+     * @return progress, or 0 if there is no numeric progress
+     */
+    public int getIntProgress() {
+        return (int) getLongProgress();
+    }
+
+    /**
+     * Get the progress of this task as a long, converting from other numeric types if necessary.
+     *
+     * @return progress, or 0 if there is no numeric progress
+     */
+    public long getLongProgress() {
+        switch (progressType) {
+            case INTEGER:
+            case LONG:
+                return longProgress;
+            case FLOAT:
+            case DOUBLE:
+                return (long) doubleProgress;
+            case OBJECT:
+                return objectProgress instanceof Number ? ((Number) objectProgress).longValue() : 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Get the progress of this task as a double, converting from other numeric types if necessary.
+     *
+     * @return progress, or 0 if there is no numeric progress
+     */
+    public double getDoubleProgress() {
+        switch (progressType) {
+            case INTEGER:
+            case LONG:
+                return longProgress;
+            case FLOAT:
+            case DOUBLE:
+                return doubleProgress;
+            case OBJECT:
+                return objectProgress instanceof Number ? ((Number) objectProgress).doubleValue() : 0;
+            default:
+                return 0;
+        }
+    }
+
+    public void setIntProgress(int progress) {
+        setIntegral(ProgressType.INTEGER, progress);
+    }
+
+    public void setLongProgress(long progress) {
+        setIntegral(ProgressType.LONG, progress);
+    }
 
-        this.progress = progress;
+    public void setDoubleProgress(double progress) {
+        if (progressType == ProgressType.DOUBLE && Double.compare(doubleProgress, progress) == 0) return;
+
+        this.progressType = ProgressType.DOUBLE;
+        this.doubleProgress = progress;
+        this.longProgress = 0;
+        this.objectProgress = null;
+        markModified();
+    }
+
+    /**
+     * Add to the progress of this task as an int. If there is no progress, it is treated as 0.
+     *
+     * @param amount amount to add, may be negative
+     * @return the new progress
+     */
+    public int incrementIntProgress(int amount) {
+        int progress = getIntProgress() + amount;
+        setIntProgress(progress);
+        return progress;
+    }
+
+    /**
+     * Add to the progress of this task as a double. If there is no progress, it is treated as 0.
+     *
+     * @param amount amount to add, may be negative
+     * @return the new progress
+     */
+    public double incrementDoubleProgress(double amount) {
+        double progress = getDoubleProgress() + amount;
+        setDoubleProgress(progress);
+        return progress;
+    }
+
+    private void setIntegral(ProgressType type, long progress) {
+        if (progressType == type && longProgress == progress) return;
+
+        this.progressType = type;
+        this.longProgress = progress;
+        this.doubleProgress = 0;
+        this.objectProgress = null;
+        markModified();
     }
 
     public UUID getPlayer() {
@@ -55,12 +230,19 @@ public class TaskProgress {
         return completed;
     }
 
+    /**
+     * Set whether this task is completed. The quest is queued to be checked for completion when this completes
+     * the last of its incomplete tasks.
+     *
+     * @param complete whether the task is completed
+     */
     public void setCompleted(boolean complete) {
+        boolean changed = this.completed != complete;
         this.completed = complete;
-        this.modified = true;
+        markModified();
 
-        if (complete) {
-            linkedQuestProgress.queueForCompletionTest();
+        if (changed && linkedQuestProgress != null) {
+            linkedQuestProgress.taskCompletionChanged(this);
         }
     }
 
@@ -71,4 +253,42 @@ public class TaskProgress {
     public void resetModified() {
         this.modified = false;
     }
+
+    /**
+     * Reset the modified status of this task progress and then copy it, so that a change made meanwhile by
+     * another thread marks it as modified again.
+     *
+     * @return a copy of this task progress, marked as modified
+     */
+    TaskProgress takeModified() {
+        this.modified = false;
+        TaskProgress copy = new TaskProgress(this);
+        copy.modified = true;
+        return copy;
+    }
+
+    void restoreModified() {
+        this.modified = true;
+    }
+
+    private void markModified() {
+        if (modified) return;
+
+        this.modified = true;
+        if (linkedQuestProgress != null) {
+            linkedQuestProgress.markTaskModified(this);
+        }
+    }
+
+    /**
+     * The type of progress stored by a {@link TaskProgress}. Numeric types are stored unboxed.
+     */
+    public enum ProgressType {
+        NONE,
+        INTEGER,
+        LONG,
+        FLOAT,
+        DOUBLE,
+        OBJECT
+    }
 }
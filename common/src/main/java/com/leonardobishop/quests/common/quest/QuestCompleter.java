@@ -7,6 +7,9 @@ import org.jetbrains.annotations.NotNull;
 /**
  * The quest completer is responsible for checking each player for completed quests. Implementations may split
  * this workload up into a queue based system.
+ * <p>
+ * Checks may be queued from any thread, and implementations must accept them without blocking. When the
+ * check itself runs is up to the implementation, which should document the thread it runs on.
  */
 public interface QuestCompleter {
 
@@ -24,4 +27,11 @@ public interface QuestCompleter {
      */
     void queueFullCheck(@NotNull QuestProgressFile questProgressFile);
 
+    /**
+     * Get the number of checks waiting to be processed.
+     *
+     * @return backlog size
+     */
+    int getBacklog();
+
 }
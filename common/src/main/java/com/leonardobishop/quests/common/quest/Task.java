@@ -13,6 +13,7 @@ public class Task {
     private final Map<String, Object> configValues = new HashMap<>();
     private final String id;
     private final String type;
+    private Object compiledConfig;
 
     public Task(String id, String type) {
         this.id = id;
@@ -78,4 +79,25 @@ public class Task {
         configValues.put(key, value);
     }
 
+    /**
+     * Get the configuration of this task as compiled by its task type.
+     *
+     * @return compiled config, or null if the task type does not compile its tasks
+     * @see com.leonardobishop.quests.common.tasktype.TaskType#compile(Task)
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable <T> T getCompiledConfig() {
+        return (T) compiledConfig;
+    }
+
+    /**
+     * Set the compiled configuration of this task. This is usually done when
+     * all the quests are initially loaded.
+     *
+     * @param compiledConfig compiled config
+     */
+    public void setCompiledConfig(@Nullable Object compiledConfig) {
+        this.compiledConfig = compiledConfig;
+    }
+
 }
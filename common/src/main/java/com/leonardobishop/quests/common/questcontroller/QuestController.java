@@ -1,7 +1,9 @@
 package com.leonardobishop.quests.common.questcontroller;
 
 import com.leonardobishop.quests.common.enums.QuestStartResult;
+import com.leonardobishop.quests.common.player.ActiveTaskIndex;
 import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.quest.Quest;
 
 /**
@@ -24,4 +26,20 @@ public interface QuestController {
 
     void trackQuestForPlayer(QPlayer qPlayer, Quest quest);
 
+    /**
+     * Rebuild the {@link ActiveTaskIndex} of a player from their progress. The index is cleared first. By default,
+     * the quests the player has started are indexed, and each is checked as started before its tasks are
+     * progressed.
+     *
+     * @param qPlayer the player
+     */
+    default void rebuildActiveTaskIndex(QPlayer qPlayer) {
+        ActiveTaskIndex activeTaskIndex = qPlayer.getActiveTaskIndex();
+        QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+        activeTaskIndex.clear();
+        for (Quest quest : questProgressFile.getStartedQuests()) {
+            activeTaskIndex.index(quest, questProgressFile.getQuestProgress(quest), true);
+        }
+    }
+
 }
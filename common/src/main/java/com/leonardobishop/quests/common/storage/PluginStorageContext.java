@@ -0,0 +1,44 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.config.QuestsConfig;
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The storage context of a running plugin, which loaded progress belongs to.
+ */
+public final class PluginStorageContext implements StorageContext {
+
+    private final Quests plugin;
+
+    public PluginStorageContext(@NotNull Quests plugin) {
+        Objects.requireNonNull(plugin, "plugin cannot be null");
+
+        this.plugin = plugin;
+    }
+
+    @Override
+    public @NotNull QuestsLogger getQuestsLogger() {
+        return plugin.getQuestsLogger();
+    }
+
+    @Override
+    public @NotNull QuestsConfig getQuestsConfig() {
+        return plugin.getQuestsConfig();
+    }
+
+    @Override
+    public @NotNull Map<String, Quest> getQuests() {
+        return plugin.getQuestManager().getQuests();
+    }
+
+    @Override
+    public @NotNull Quests getPlugin() {
+        return plugin;
+    }
+}
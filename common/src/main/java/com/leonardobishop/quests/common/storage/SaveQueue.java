@@ -0,0 +1,214 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A write-behind queue for saving players to a {@link StorageProvider}. Saves are written by a bounded
+ * number of threads owned by the queue, each of which hands every save waiting at the time to the storage
+ * provider as one batch. If a player is saved again while an earlier save is still waiting to be written,
+ * the two are merged into a single write. Saves for the same player are always written one at a time,
+ * in the order they were submitted.
+ */
+public class SaveQueue {
+
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final QuestsLogger logger;
+    private final StorageProvider storageProvider;
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+    private final Map<UUID, PendingSave> pendingSaves = new LinkedHashMap<>();
+    private final Set<UUID> writingPlayers = new HashSet<>();
+    private final Object lock = new Object();
+    private int activeWorkers;
+
+    public SaveQueue(@NotNull QuestsLogger logger, @NotNull StorageProvider storageProvider, int parallelism) {
+        Objects.requireNonNull(logger, "logger cannot be null");
+        Objects.requireNonNull(storageProvider, "storageProvider cannot be null");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        this.logger = logger;
+        this.storageProvider = storageProvider;
+        this.parallelism = parallelism;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Quests Save Thread #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a save for a player. The progress file must not be used by anything else once submitted,
+     * and should usually be obtained by {@link QuestProgressFile#takeModified()}.
+     * If the queue has been shut down, the save is written on the calling thread.
+     *
+     * @param uuid the uuid of the player
+     * @param questProgressFile the progress file to save
+     * @return a future which completes once the save has been written, or exceptionally if it could not be
+     */
+    public @NotNull CompletableFuture<Void> submit(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        PendingSave pendingSave;
+        synchronized (lock) {
+            pendingSave = pendingSaves.get(uuid);
+            if (pendingSave != null) {
+                logger.debug("Merging save of player " + uuid + " into queued save.");
+                pendingSave.questProgressFile.mergeModified(questProgressFile);
+                return pendingSave.future;
+            }
+
+            pendingSave = new PendingSave(questProgressFile);
+            pendingSaves.put(uuid, pendingSave);
+            if (activeWorkers >= parallelism) {
+                // a busy worker will pick this save up once it has finished its current batch
+                return pendingSave.future;
+            }
+            activeWorkers++;
+        }
+
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException ignored) {
+            drain();
+        }
+        return pendingSave.future;
+    }
+
+    private void drain() {
+        while (true) {
+            Map<UUID, PendingSave> batch = new LinkedHashMap<>();
+            synchronized (lock) {
+                Iterator<Map.Entry<UUID, PendingSave>> iterator = pendingSaves.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < MAX_BATCH_SIZE) {
+                    Map.Entry<UUID, PendingSave> entry = iterator.next();
+                    // saves of a player already being written must wait for that write to finish
+                    if (writingPlayers.add(entry.getKey())) {
+                        batch.put(entry.getKey(), entry.getValue());
+                        iterator.remove();
+                    }
+                }
+                if (batch.isEmpty()) {
+                    activeWorkers--;
+                    lock.notifyAll();
+                    return;
+                }
+            }
+
+            Map<UUID, QuestProgressFile> questProgressFiles = new LinkedHashMap<>();
+            for (Map.Entry<UUID, PendingSave> entry : batch.entrySet()) {
+                questProgressFiles.put(entry.getKey(), entry.getValue().questProgressFile);
+            }
+            Exception failure = null;
+            try {
+                logger.debug("Saving " + batch.size() + " player(s).");
+                storageProvider.saveProgressFiles(questProgressFiles);
+            } catch (Exception e) {
+                logger.severe("Failed to save " + batch.size() + " player(s)!");
+                e.printStackTrace();
+                failure = e;
+            } finally {
+                synchronized (lock) {
+                    writingPlayers.removeAll(batch.keySet());
+                    lock.notifyAll();
+                }
+                for (PendingSave pendingSave : batch.values()) {
+                    if (failure == null) {
+                        pendingSave.future.complete(null);
+                    } else {
+                        pendingSave.future.completeExceptionally(failure);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of players with a save waiting to be written.
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pendingSaves.size();
+        }
+    }
+
+    /**
+     * Wait for every queued save to be written, including those submitted while waiting.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if all saves were written, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (activeWorkers > 0 || !pendingSaves.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Wait for any queued save of a player to be written, so that loading them afterwards reads what
+     * was saved, such as when a player reconnects just after leaving.
+     *
+     * @param uuid the uuid of the player
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if no save of the player is waiting to be written, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitPlayer(@NotNull UUID uuid, long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (pendingSaves.containsKey(uuid) || writingPlayers.contains(uuid)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stop the threads owned by this queue once any queued saves have been written. Saves submitted
+     * afterwards are written on the thread which submits them.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class PendingSave {
+
+        private final QuestProgressFile questProgressFile;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingSave(QuestProgressFile questProgressFile) {
+            this.questProgressFile = questProgressFile;
+        }
+    }
+}
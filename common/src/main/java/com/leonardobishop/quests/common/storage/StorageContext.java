@@ -0,0 +1,33 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.config.QuestsConfig;
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * What a {@link StorageProvider} needs from its surroundings: somewhere to log, the configuration, and the
+ * quests which are loaded. This lets storage providers run without a server, such as when copying players
+ * between them.
+ */
+public interface StorageContext {
+
+    @NotNull QuestsLogger getQuestsLogger();
+
+    @NotNull QuestsConfig getQuestsConfig();
+
+    /**
+     * @return immutable map of id to quest of all loaded quests, which is empty if none are loaded
+     */
+    @NotNull Map<String, Quest> getQuests();
+
+    /**
+     * @return the plugin which loaded progress belongs to, or null if progress is only read and written by
+     * storage providers
+     */
+    @Nullable Quests getPlugin();
+}
@@ -0,0 +1,11 @@
+package com.leonardobishop.quests.common.storage;
+
+/**
+ * Thrown by a {@link StorageProvider} when players could not be written to its data source.
+ */
+public class StorageException extends RuntimeException {
+
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,220 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Copies every player from one {@link StorageProvider} to another. Players are copied in batches, in order
+ * of their UUID, by a number of threads at once. After each batch, the last UUID up to which every player
+ * has been copied is written to a checkpoint file, so that an interrupted migration can continue from
+ * where it stopped; the checkpoint is deleted once the migration completes. The checkpoint never moves past
+ * a player which could not be loaded or saved. Such players are listed in a file next to the checkpoint,
+ * and running the migration again retries them.
+ * <p>
+ * Players are read with {@link StorageProvider#loadProgressFiles(Collection)}, so progress for quests
+ * which no longer exist is not copied if the source provider leaves it out on load.
+ */
+public class StorageMigration {
+
+    private final QuestsLogger logger;
+    private final StorageProvider source;
+    private final StorageProvider target;
+    private final int batchSize;
+    private final int parallelism;
+    private final File checkpointFile;
+
+    /**
+     * @param source the provider to copy players from
+     * @param target the provider to copy players to
+     * @param batchSize the number of players loaded and saved at once
+     * @param parallelism the number of batches copied at the same time
+     * @param checkpointFile the file to record progress in, or null if the migration cannot be resumed
+     */
+    public StorageMigration(@NotNull QuestsLogger logger, @NotNull StorageProvider source, @NotNull StorageProvider target,
+                            int batchSize, int parallelism, @Nullable File checkpointFile) {
+        Objects.requireNonNull(logger, "logger cannot be null");
+        Objects.requireNonNull(source, "source cannot be null");
+        Objects.requireNonNull(target, "target cannot be null");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        this.logger = logger;
+        this.source = source;
+        this.target = target;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Copy every player, blocking until done.
+     *
+     * @param progressCallback receives progress messages
+     * @return whether every batch was copied
+     */
+    public boolean migrate(@NotNull Consumer<String> progressCallback) {
+        Objects.requireNonNull(progressCallback, "progressCallback cannot be null");
+
+        List<UUID> uuids = new ArrayList<>(source.loadAllUUIDs());
+        Collections.sort(uuids);
+
+        UUID checkpoint = readCheckpoint();
+        if (checkpoint != null) {
+            int resumeFrom = 0;
+            while (resumeFrom < uuids.size() && uuids.get(resumeFrom).compareTo(checkpoint) <= 0) {
+                resumeFrom++;
+            }
+            progressCallback.accept("Resuming migration after " + resumeFrom + " players already copied.");
+            uuids = uuids.subList(resumeFrom, uuids.size());
+        }
+        progressCallback.accept("Copying " + uuids.size() + " players...");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "Quests Migration Thread #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<List<UUID>> batches = new ArrayList<>();
+        List<Future<List<UUID>>> results = new ArrayList<>();
+        for (int i = 0; i < uuids.size(); i += batchSize) {
+            List<UUID> batch = uuids.subList(i, Math.min(i + batchSize, uuids.size()));
+            batches.add(batch);
+            results.add(executor.submit(() -> copy(batch)));
+        }
+        executor.shutdown();
+
+        int processed = 0;
+        int copied = 0;
+        List<UUID> failed = new ArrayList<>();
+        int reportEvery = Math.max(1, 10000 / batchSize);
+        try {
+            // batches are waited for in order, so the checkpoint only ever covers players which have been copied
+            for (int i = 0; i < batches.size(); i++) {
+                List<UUID> batch = batches.get(i);
+                List<UUID> notCopied;
+                try {
+                    notCopied = results.get(i).get();
+                } catch (ExecutionException e) {
+                    logger.severe("Failed to copy players up to " + batch.get(batch.size() - 1) + "!");
+                    e.getCause().printStackTrace();
+                    notCopied = batch;
+                }
+                failed.addAll(notCopied);
+                copied += batch.size() - notCopied.size();
+                processed += batch.size();
+                if (failed.isEmpty()) {
+                    writeCheckpoint(batch.get(batch.size() - 1));
+                }
+                if ((i + 1) % reportEvery == 0) {
+                    progressCallback.accept("Copied " + processed + "/" + uuids.size() + " players...");
+                }
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            progressCallback.accept("Migration stopped after " + processed + " players. Running it again will continue from where it stopped.");
+            return false;
+        }
+
+        progressCallback.accept("Copied " + copied + " players.");
+        if (!failed.isEmpty()) {
+            writeFailed(failed);
+            progressCallback.accept(failed.size() + " players could not be copied, see the console for details" +
+                    (checkpointFile == null ? "." : " and " + getFailedFile().getName() + ".") +
+                    " Running the migration again will retry them.");
+            return false;
+        }
+        deleteCheckpoint();
+        return true;
+    }
+
+    /**
+     * Copy a batch of players.
+     *
+     * @return the players which could not be loaded from the source provider
+     */
+    private List<UUID> copy(List<UUID> batch) {
+        Map<UUID, QuestProgressFile> questProgressFiles = source.loadProgressFiles(batch);
+        for (QuestProgressFile questProgressFile : questProgressFiles.values()) {
+            questProgressFile.markAllModified();
+        }
+        target.saveProgressFiles(questProgressFiles);
+        logger.debug("Copied " + questProgressFiles.size() + " players up to " + batch.get(batch.size() - 1));
+
+        List<UUID> notLoaded = new ArrayList<>();
+        for (UUID uuid : batch) {
+            if (!questProgressFiles.containsKey(uuid)) {
+                logger.severe("Failed to load player " + uuid + " to copy!");
+                notLoaded.add(uuid);
+            }
+        }
+        return notLoaded;
+    }
+
+    private @Nullable UUID readCheckpoint() {
+        if (checkpointFile == null || !checkpointFile.exists()) return null;
+
+        try {
+            return UUID.fromString(new String(Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8).trim());
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warning("Failed to read migration checkpoint " + checkpointFile.getName() + ", starting from the beginning.");
+            return null;
+        }
+    }
+
+    private void writeCheckpoint(UUID uuid) {
+        if (checkpointFile == null) return;
+
+        try {
+            Files.write(checkpointFile.toPath(), uuid.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.warning("Failed to write migration checkpoint " + checkpointFile.getName() + ".");
+        }
+    }
+
+    private void writeFailed(List<UUID> failed) {
+        if (checkpointFile == null) return;
+
+        List<String> lines = new ArrayList<>(failed.size());
+        for (UUID uuid : failed) {
+            lines.add(uuid.toString());
+        }
+        try {
+            Files.write(getFailedFile().toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warning("Failed to write players which could not be copied to " + getFailedFile().getName() + ".");
+        }
+    }
+
+    private File getFailedFile() {
+        return new File(checkpointFile.getPath() + ".failed");
+    }
+
+    private void deleteCheckpoint() {
+        if (checkpointFile == null) return;
+
+        try {
+            Files.deleteIfExists(checkpointFile.toPath());
+            Files.deleteIfExists(getFailedFile().toPath());
+        } catch (IOException e) {
+            logger.warning("Failed to delete migration checkpoint " + checkpointFile.getName() + ".");
+        }
+    }
+}
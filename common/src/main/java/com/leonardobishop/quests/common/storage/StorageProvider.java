@@ -4,6 +4,10 @@ import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFi
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -25,10 +29,67 @@ public interface StorageProvider {
     @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid);
 
     /**
-     * Save a QuestProgressFile to the data source with a specific UUID
+     * Load many QuestProgressFiles from the data source at once. Storage providers which can read several
+     * players more cheaply than one at a time should override this; by default each file is loaded with
+     * {@link #loadProgressFile(UUID)}.
+     *
+     * @param uuids the UUIDs to load
+     * @return {@code Map<UUID, QuestProgressFile>} of each file loaded, which excludes any that could not be loaded
+     */
+    default @NotNull Map<UUID, QuestProgressFile> loadProgressFiles(@NotNull Collection<UUID> uuids) {
+        Objects.requireNonNull(uuids, "uuids cannot be null");
+
+        Map<UUID, QuestProgressFile> questProgressFiles = new HashMap<>();
+        for (UUID uuid : uuids) {
+            QuestProgressFile questProgressFile = loadProgressFile(uuid);
+            if (questProgressFile != null) {
+                questProgressFiles.put(uuid, questProgressFile);
+            }
+        }
+        return questProgressFiles;
+    }
+
+    /**
+     * Load the UUID of every player stored in the data source.
+     *
+     * @return {@code Collection<UUID>} of stored players
+     */
+    @NotNull Collection<UUID> loadAllUUIDs();
+
+    /**
+     * Save a QuestProgressFile to the data source with a specific UUID. Only progress returned by
+     * {@link QuestProgressFile#getModifiedQuestProgress()} needs to be written.
+     *
      * @param uuid the uuid to match the file to
      * @param questProgressFile the file to save
+     * @throws StorageException if the file could not be written
      */
     void saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile);
 
+    /**
+     * Save many QuestProgressFiles to the data source at once. Storage providers which can write several
+     * players more cheaply than one at a time should override this; by default each file is saved with
+     * {@link #saveProgressFile(UUID, QuestProgressFile)}.
+     *
+     * @param questProgressFiles the files to save, keyed by the uuid to match each file to
+     * @throws StorageException if any of the files could not be written
+     */
+    default void saveProgressFiles(@NotNull Map<UUID, QuestProgressFile> questProgressFiles) {
+        Objects.requireNonNull(questProgressFiles, "questProgressFiles cannot be null");
+
+        for (Map.Entry<UUID, QuestProgressFile> entry : questProgressFiles.entrySet()) {
+            saveProgressFile(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Get a short summary of how this storage provider is performing, such as how long threads have waited
+     * to read or write players, for display to administrators while the server is running.
+     *
+     * @return the summary, or null if there is nothing to report
+     */
+    default @Nullable String getStatistics() {
+        return null;
+    }
+
 }
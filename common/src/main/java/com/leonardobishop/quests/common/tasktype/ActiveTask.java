@@ -0,0 +1,66 @@
+package com.leonardobishop.quests.common.tasktype;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents a task which a player is currently progressing, along with the quest it belongs to
+ * and the progress the player has made towards it.
+ */
+public class ActiveTask {
+
+    private final Quest quest;
+    private final Task task;
+    private final QuestProgress questProgress;
+    private final TaskProgress taskProgress;
+    private final boolean startCheckRequired;
+
+    public ActiveTask(Quest quest, Task task, QuestProgress questProgress, TaskProgress taskProgress, boolean startCheckRequired) {
+        this.quest = quest;
+        this.task = task;
+        this.questProgress = questProgress;
+        this.taskProgress = taskProgress;
+        this.startCheckRequired = startCheckRequired;
+    }
+
+    /**
+     * @return the quest this task belongs to
+     */
+    public @NotNull Quest getQuest() {
+        return quest;
+    }
+
+    /**
+     * @return the task
+     */
+    public @NotNull Task getTask() {
+        return task;
+    }
+
+    /**
+     * @return the players progress for the quest this task belongs to
+     */
+    public @NotNull QuestProgress getQuestProgress() {
+        return questProgress;
+    }
+
+    /**
+     * @return the players progress for this task
+     */
+    public @NotNull TaskProgress getTaskProgress() {
+        return taskProgress;
+    }
+
+    /**
+     * Get whether the quest must be checked with {@link com.leonardobishop.quests.common.player.QPlayer#hasStartedQuest(Quest)}
+     * before the task is progressed, for example if the quest is automatically started.
+     *
+     * @return boolean
+     */
+    public boolean isStartCheckRequired() {
+        return startCheckRequired;
+    }
+}
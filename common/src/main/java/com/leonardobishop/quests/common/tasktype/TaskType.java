@@ -1,6 +1,8 @@
 package com.leonardobishop.quests.common.tasktype;
 
 import com.leonardobishop.quests.common.config.ConfigProblem;
+import com.leonardobishop.quests.common.player.ActiveTaskIndex;
+import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import org.jetbrains.annotations.NotNull;
@@ -69,6 +71,29 @@ public abstract class TaskType {
         return Collections.unmodifiableList(quests);
     }
 
+    /**
+     * Get the tasks of this type which a player is currently progressing. Only tasks which belong to
+     * quests the player has started, and which have not yet been completed, are returned. The tasks are
+     * read from the index of the player as they are iterated, so the result should not be kept.
+     *
+     * @param qPlayer the player
+     * @return {@link Iterable} of type {@link ActiveTask} for the player
+     */
+    public final @NotNull Iterable<ActiveTask> getActiveTasks(@NotNull QPlayer qPlayer) {
+        Objects.requireNonNull(qPlayer, "qPlayer cannot be null");
+
+        ActiveTaskIndex activeTaskIndex = qPlayer.getActiveTaskIndex();
+        if (!activeTaskIndex.isValid()) {
+            activeTaskIndex.rebuildIfInvalid(() -> qPlayer.getQuestController().rebuildActiveTaskIndex(qPlayer));
+        }
+
+        List<ActiveTask> indexedTasks = activeTaskIndex.getActiveTasks(type);
+        if (indexedTasks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return () -> new ActiveTaskIterator(qPlayer, indexedTasks);
+    }
+
     public final @NotNull String getType() {
         return type;
     }
@@ -110,4 +135,54 @@ public abstract class TaskType {
         // not implemented here
         return Collections.emptyList();
     }
+
+    /**
+     * Called when Quests loads a task of this type, after its configuration has been validated - used to
+     * parse the configuration of the task ahead of time so that it does not need to be parsed when the task is
+     * progressed. The returned object is cached on the task and can be retrieved with {@link Task#getCompiledConfig()}.
+     *
+     * @param task the task to compile
+     * @return an immutable compiled config for the task, or null
+     */
+    public @Nullable Object compile(@NotNull Task task) {
+        // not implemented here
+        return null;
+    }
+
+    /**
+     * Iterates the indexed tasks of a player, skipping those which cannot be progressed, without copying them.
+     */
+    private static final class ActiveTaskIterator implements Iterator<ActiveTask> {
+
+        private final QPlayer qPlayer;
+        private final List<ActiveTask> indexedTasks;
+        private int index;
+        private ActiveTask next;
+
+        private ActiveTaskIterator(QPlayer qPlayer, List<ActiveTask> indexedTasks) {
+            this.qPlayer = qPlayer;
+            this.indexedTasks = indexedTasks;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && index < indexedTasks.size()) {
+                ActiveTask activeTask = indexedTasks.get(index++);
+                if (activeTask.getTaskProgress().isCompleted()) continue;
+                if (activeTask.isStartCheckRequired() && !qPlayer.hasStartedQuest(activeTask.getQuest())) continue;
+                next = activeTask;
+            }
+            return next != null;
+        }
+
+        @Override
+        public ActiveTask next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ActiveTask activeTask = next;
+            next = null;
+            return activeTask;
+        }
+    }
 }
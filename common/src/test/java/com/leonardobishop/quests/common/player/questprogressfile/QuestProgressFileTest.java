@@ -0,0 +1,161 @@
+package com.leonardobishop.quests.common.player.questprogressfile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestProgressFileTest {
+
+    private static final UUID PLAYER = UUID.randomUUID();
+
+    private QuestProgressFile questProgressFile;
+
+    @BeforeEach
+    void setUp() {
+        // as if loaded from storage, so nothing is modified yet
+        questProgressFile = new QuestProgressFile(PLAYER, null);
+        questProgressFile.addQuestProgress(newQuestProgress("first", "a", "b"));
+        questProgressFile.addQuestProgress(newQuestProgress("second", "a"));
+    }
+
+    @Test
+    void loadedProgressIsNotModified() {
+        assertFalse(questProgressFile.isModified());
+        assertTrue(questProgressFile.getModifiedQuestProgress().isEmpty());
+    }
+
+    @Test
+    void copyModifiedContainsOnlyModifiedProgress() {
+        task(questProgressFile, "first", "b").setIntProgress(3);
+
+        QuestProgressFile copy = questProgressFile.copyModified();
+        assertEquals(1, copy.getAllQuestProgress().size());
+        QuestProgress copiedProgress = find(copy, "first");
+        assertEquals(1, copiedProgress.getTaskProgress().size());
+        assertEquals(3, copiedProgress.getTaskProgressMap().get("b").getIntProgress());
+        assertEquals(1, copiedProgress.getModifiedTaskProgress().size());
+
+        // copying leaves the original modified, and the copy is independent of it
+        assertTrue(questProgressFile.isModified());
+        copiedProgress.getTaskProgressMap().get("b").setIntProgress(10);
+        assertEquals(3, task(questProgressFile, "first", "b").getIntProgress());
+    }
+
+    @Test
+    void takeModifiedResetsWhatWasTaken() {
+        task(questProgressFile, "first", "b").setIntProgress(3);
+
+        QuestProgressFile taken = questProgressFile.takeModified();
+        assertEquals(3, task(taken, "first", "b").getIntProgress());
+        assertFalse(questProgressFile.isModified());
+        assertFalse(task(questProgressFile, "first", "b").isModified());
+
+        // progress made after taking is marked again, and taken by itself the next time
+        task(questProgressFile, "second", "a").setIntProgress(1);
+        assertTrue(questProgressFile.isModified());
+        QuestProgressFile takenAgain = questProgressFile.takeModified();
+        assertEquals(1, takenAgain.getAllQuestProgress().size());
+        assertEquals(1, task(takenAgain, "second", "a").getIntProgress());
+    }
+
+    @Test
+    void takeModifiedIncludesQuestState() {
+        find(questProgressFile, "second").setCompleted(true);
+
+        QuestProgressFile taken = questProgressFile.takeModified();
+        QuestProgress takenProgress = find(taken, "second");
+        assertTrue(takenProgress.isCompleted());
+        assertTrue(takenProgress.isModified());
+        assertTrue(takenProgress.getTaskProgress().isEmpty());
+        assertFalse(questProgressFile.isModified());
+    }
+
+    @Test
+    void restoreModifiedMarksTakenProgressAgain() {
+        task(questProgressFile, "first", "b").setIntProgress(3);
+        QuestProgressFile taken = questProgressFile.takeModified();
+
+        questProgressFile.restoreModified(taken);
+        assertTrue(questProgressFile.isModified());
+        assertEquals(1, questProgressFile.getModifiedQuestProgress().size());
+        QuestProgress restored = questProgressFile.getModifiedQuestProgress().get(0);
+        assertEquals("first", restored.getQuestId());
+        assertEquals(1, restored.getModifiedTaskProgress().size());
+        assertEquals("b", restored.getModifiedTaskProgress().get(0).getTaskId());
+        assertTrue(task(questProgressFile, "first", "b").isModified());
+    }
+
+    @Test
+    void mergeModifiedKeepsNewerProgress() {
+        task(questProgressFile, "first", "a").setIntProgress(1);
+        QuestProgressFile older = questProgressFile.takeModified();
+
+        task(questProgressFile, "first", "a").setIntProgress(2);
+        task(questProgressFile, "first", "b").setIntProgress(5);
+        find(questProgressFile, "first").setCompleted(true);
+        task(questProgressFile, "second", "a").setIntProgress(7);
+        QuestProgressFile newer = questProgressFile.takeModified();
+
+        older.mergeModified(newer);
+        assertEquals(2, older.getAllQuestProgress().size());
+        assertEquals(2, older.getModifiedQuestProgress().size());
+        assertTrue(find(older, "first").isCompleted());
+        assertEquals(2, task(older, "first", "a").getIntProgress());
+        assertEquals(5, task(older, "first", "b").getIntProgress());
+        assertEquals(7, task(older, "second", "a").getIntProgress());
+    }
+
+    @Test
+    void mergeModifiedKeepsOlderProgressNotInNewer() {
+        task(questProgressFile, "first", "a").setIntProgress(1);
+        QuestProgressFile older = questProgressFile.takeModified();
+
+        task(questProgressFile, "first", "b").setIntProgress(5);
+        QuestProgressFile newer = questProgressFile.takeModified();
+
+        older.mergeModified(newer);
+        assertEquals(1, task(older, "first", "a").getIntProgress());
+        assertEquals(5, task(older, "first", "b").getIntProgress());
+        assertEquals(2, find(older, "first").getModifiedTaskProgress().size());
+    }
+
+    @Test
+    void resetMarksAllProgressModified() {
+        task(questProgressFile, "first", "a").setIntProgress(4);
+        task(questProgressFile, "first", "a").setCompleted(true);
+        questProgressFile.resetModified();
+
+        questProgressFile.reset();
+        assertEquals(2, questProgressFile.getModifiedQuestProgress().size());
+        TaskProgress taskProgress = task(questProgressFile, "first", "a");
+        assertEquals(TaskProgress.ProgressType.NONE, taskProgress.getProgressType());
+        assertFalse(taskProgress.isCompleted());
+        assertEquals(2, find(questProgressFile, "first").getModifiedTaskProgress().size());
+    }
+
+    private static QuestProgress newQuestProgress(String questId, String... taskIds) {
+        QuestProgress questProgress = new QuestProgress(null, questId, false, false, 0, PLAYER, true);
+        for (String taskId : taskIds) {
+            questProgress.addTaskProgress(new TaskProgress(questProgress, taskId, 0, PLAYER, false));
+        }
+        return questProgress;
+    }
+
+    private static QuestProgress find(QuestProgressFile questProgressFile, String questId) {
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (questProgress.getQuestId().equals(questId)) {
+                return questProgress;
+            }
+        }
+        return fail("no progress for quest " + questId);
+    }
+
+    private static TaskProgress task(QuestProgressFile questProgressFile, String questId, String taskId) {
+        TaskProgress taskProgress = find(questProgressFile, questId).getTaskProgressMap().get(taskId);
+        assertNotNull(taskProgress, "no progress for task " + taskId);
+        return taskProgress;
+    }
+}
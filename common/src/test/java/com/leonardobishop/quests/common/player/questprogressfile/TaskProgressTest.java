@@ -0,0 +1,127 @@
+package com.leonardobishop.quests.common.player.questprogressfile;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskProgressTest {
+
+    private static final UUID PLAYER = UUID.randomUUID();
+
+    @Test
+    void storesBoxedProgressInTypedSlots() {
+        TaskProgress taskProgress = new TaskProgress(null, "task", 5, PLAYER, false);
+        assertEquals(TaskProgress.ProgressType.INTEGER, taskProgress.getProgressType());
+        assertEquals(5, taskProgress.getProgress());
+
+        taskProgress.setProgress(5_000_000_000L);
+        assertEquals(TaskProgress.ProgressType.LONG, taskProgress.getProgressType());
+        assertEquals(5_000_000_000L, taskProgress.getProgress());
+
+        taskProgress.setProgress(1.5f);
+        assertEquals(TaskProgress.ProgressType.FLOAT, taskProgress.getProgressType());
+        assertEquals(1.5f, taskProgress.getProgress());
+
+        taskProgress.setProgress(0.1d);
+        assertEquals(TaskProgress.ProgressType.DOUBLE, taskProgress.getProgressType());
+        assertEquals(0.1d, taskProgress.getProgress());
+
+        taskProgress.setProgress("text");
+        assertEquals(TaskProgress.ProgressType.OBJECT, taskProgress.getProgressType());
+        assertEquals("text", taskProgress.getProgress());
+
+        taskProgress.setProgress(null);
+        assertEquals(TaskProgress.ProgressType.NONE, taskProgress.getProgressType());
+        assertNull(taskProgress.getProgress());
+    }
+
+    @Test
+    void convertsBetweenNumericTypes() {
+        TaskProgress taskProgress = new TaskProgress(null, "task", 2.75d, PLAYER, false);
+        assertEquals(2, taskProgress.getIntProgress());
+        assertEquals(2L, taskProgress.getLongProgress());
+        assertEquals(2.75d, taskProgress.getDoubleProgress());
+
+        taskProgress.setLongProgress(7L);
+        assertEquals(7, taskProgress.getIntProgress());
+        assertEquals(7d, taskProgress.getDoubleProgress());
+
+        taskProgress.setProgress(new BigDecimal("3.5"));
+        assertEquals(3, taskProgress.getIntProgress());
+        assertEquals(3.5d, taskProgress.getDoubleProgress());
+
+        taskProgress.setProgress("text");
+        assertEquals(0, taskProgress.getIntProgress());
+        assertEquals(0d, taskProgress.getDoubleProgress());
+    }
+
+    @Test
+    void clearsOtherSlotsWhenTypeChanges() {
+        TaskProgress taskProgress = new TaskProgress(null, "task", 2.5d, PLAYER, false);
+        taskProgress.setIntProgress(4);
+        assertEquals(TaskProgress.ProgressType.INTEGER, taskProgress.getProgressType());
+        assertEquals(4d, taskProgress.getDoubleProgress());
+
+        taskProgress.setDoubleProgress(1.25d);
+        assertEquals(TaskProgress.ProgressType.DOUBLE, taskProgress.getProgressType());
+        assertEquals(1, taskProgress.getIntProgress());
+    }
+
+    @Test
+    void incrementsFromNoProgress() {
+        TaskProgress taskProgress = new TaskProgress(null, "task", null, PLAYER, false);
+        assertEquals(1, taskProgress.incrementIntProgress(1));
+        assertEquals(3, taskProgress.incrementIntProgress(2));
+        assertEquals(TaskProgress.ProgressType.INTEGER, taskProgress.getProgressType());
+
+        TaskProgress doubleProgress = new TaskProgress(null, "task", null, PLAYER, false);
+        assertEquals(0.5d, doubleProgress.incrementDoubleProgress(0.5d));
+        assertEquals(TaskProgress.ProgressType.DOUBLE, doubleProgress.getProgressType());
+    }
+
+    @Test
+    void marksModifiedOnlyWhenProgressChanges() {
+        TaskProgress taskProgress = new TaskProgress(null, "task", 3, PLAYER, false);
+        assertFalse(taskProgress.isModified());
+
+        taskProgress.setIntProgress(3);
+        taskProgress.setProgress(3);
+        assertFalse(taskProgress.isModified());
+
+        // the same number as a different type is a change
+        taskProgress.setLongProgress(3L);
+        assertTrue(taskProgress.isModified());
+
+        taskProgress.resetModified();
+        taskProgress.incrementIntProgress(1);
+        assertTrue(taskProgress.isModified());
+    }
+
+    @Test
+    void marksLinkedQuestProgressModified() {
+        QuestProgress questProgress = new QuestProgress(null, "quest", false, false, 0, PLAYER, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, "task", 0, PLAYER, false));
+        assertFalse(questProgress.isModified());
+
+        questProgress.getTaskProgress("task").incrementIntProgress(1);
+        assertTrue(questProgress.isModified());
+        assertEquals(1, questProgress.getModifiedTaskProgress().size());
+    }
+
+    @Test
+    void copiesProgress() {
+        TaskProgress taskProgress = new TaskProgress(null, "task", 5_000_000_000L, PLAYER, true, true);
+        TaskProgress copy = new TaskProgress(taskProgress);
+        assertEquals("task", copy.getTaskId());
+        assertEquals(TaskProgress.ProgressType.LONG, copy.getProgressType());
+        assertEquals(5_000_000_000L, copy.getLongProgress());
+        assertTrue(copy.isCompleted());
+        assertTrue(copy.isModified());
+
+        copy.setLongProgress(1L);
+        assertEquals(5_000_000_000L, taskProgress.getLongProgress());
+    }
+}
@@ -0,0 +1,213 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveQueueTest {
+
+    private static final UUID FIRST_PLAYER = UUID.randomUUID();
+    private static final UUID SECOND_PLAYER = UUID.randomUUID();
+    private static final UUID THIRD_PLAYER = UUID.randomUUID();
+
+    private final RecordingStorageProvider storageProvider = new RecordingStorageProvider();
+    private SaveQueue saveQueue;
+
+    @AfterEach
+    void tearDown() {
+        storageProvider.release.countDown();
+        if (saveQueue != null) {
+            saveQueue.shutdown();
+        }
+    }
+
+    @Test
+    void mergesSavesWaitingForTheSamePlayer() throws Exception {
+        saveQueue = new SaveQueue(new SilentLogger(), storageProvider, 1);
+        CompletableFuture<Void> first = saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "a", 1));
+        assertTrue(storageProvider.firstSaveStarted.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> second = saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "a", 2));
+        CompletableFuture<Void> third = saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "b", 3));
+        assertSame(second, third);
+        assertEquals(1, saveQueue.getQueueDepth());
+
+        storageProvider.release.countDown();
+        assertTrue(saveQueue.flush(5, TimeUnit.SECONDS));
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+
+        List<Map<UUID, QuestProgressFile>> batches = storageProvider.getBatches();
+        assertEquals(2, batches.size());
+        QuestProgressFile merged = batches.get(1).get(FIRST_PLAYER);
+        QuestProgress mergedProgress = merged.getAllQuestProgress().iterator().next();
+        assertEquals(2, mergedProgress.getTaskProgressMap().get("a").getIntProgress());
+        assertEquals(3, mergedProgress.getTaskProgressMap().get("b").getIntProgress());
+        assertEquals(2, mergedProgress.getModifiedTaskProgress().size());
+    }
+
+    @Test
+    void writesWaitingPlayersInOneBatch() throws Exception {
+        saveQueue = new SaveQueue(new SilentLogger(), storageProvider, 1);
+        saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "a", 1));
+        assertTrue(storageProvider.firstSaveStarted.await(5, TimeUnit.SECONDS));
+
+        saveQueue.submit(SECOND_PLAYER, newSave(SECOND_PLAYER, "a", 1));
+        saveQueue.submit(THIRD_PLAYER, newSave(THIRD_PLAYER, "a", 1));
+        assertEquals(2, saveQueue.getQueueDepth());
+
+        storageProvider.release.countDown();
+        assertTrue(saveQueue.flush(5, TimeUnit.SECONDS));
+
+        List<Map<UUID, QuestProgressFile>> batches = storageProvider.getBatches();
+        assertEquals(2, batches.size());
+        assertEquals(Collections.singleton(FIRST_PLAYER), batches.get(0).keySet());
+        assertEquals(new HashSet<>(Arrays.asList(SECOND_PLAYER, THIRD_PLAYER)), batches.get(1).keySet());
+    }
+
+    @Test
+    void writesSavesOfOnePlayerOneAtATime() throws Exception {
+        saveQueue = new SaveQueue(new SilentLogger(), storageProvider, 2);
+        saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "a", 1));
+        assertTrue(storageProvider.firstSaveStarted.await(5, TimeUnit.SECONDS));
+
+        // the idle worker must not write this while the first save is still being written
+        CompletableFuture<Void> second = saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "a", 2));
+        assertFalse(saveQueue.flush(200, TimeUnit.MILLISECONDS));
+        assertFalse(second.isDone());
+        assertEquals(1, storageProvider.getBatches().size());
+
+        storageProvider.release.countDown();
+        assertTrue(saveQueue.flush(5, TimeUnit.SECONDS));
+        assertTrue(second.isDone());
+        assertEquals(2, storageProvider.getBatches().size());
+    }
+
+    @Test
+    void completesFailedSavesExceptionally() {
+        storageProvider.release.countDown();
+        storageProvider.failure = new StorageException("test failure", null);
+        saveQueue = new SaveQueue(new SilentLogger(), storageProvider, 1);
+
+        CompletableFuture<Void> future = saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "a", 1));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertSame(storageProvider.failure, exception.getCause());
+    }
+
+    @Test
+    void writesOnCallingThreadAfterShutdown() {
+        storageProvider.release.countDown();
+        saveQueue = new SaveQueue(new SilentLogger(), storageProvider, 1);
+        saveQueue.shutdown();
+
+        CompletableFuture<Void> future = saveQueue.submit(FIRST_PLAYER, newSave(FIRST_PLAYER, "a", 1));
+        assertTrue(future.isDone());
+        assertEquals(1, storageProvider.getBatches().size());
+    }
+
+    /**
+     * Create a save as obtained by {@link QuestProgressFile#takeModified()}, with one modified task.
+     */
+    private static QuestProgressFile newSave(UUID uuid, String taskId, int progress) {
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, null);
+        QuestProgress questProgress = new QuestProgress(null, "quest", false, false, 0, uuid, true, true);
+        questProgress.addTaskProgress(new TaskProgress(questProgress, taskId, progress, uuid, false, true));
+        questProgressFile.addQuestProgress(questProgress);
+        return questProgressFile;
+    }
+
+    /**
+     * Records each batch it is given. The first save waits until released, so that further saves queue up
+     * behind it.
+     */
+    private static final class RecordingStorageProvider implements StorageProvider {
+
+        private final CountDownLatch firstSaveStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<Map<UUID, QuestProgressFile>> batches = new ArrayList<>();
+        private volatile StorageException failure;
+
+        List<Map<UUID, QuestProgressFile>> getBatches() {
+            synchronized (batches) {
+                return new ArrayList<>(batches);
+            }
+        }
+
+        @Override
+        public void init() { }
+
+        @Override
+        public void shutdown() { }
+
+        @Override
+        public QuestProgressFile loadProgressFile(UUID uuid) {
+            return null;
+        }
+
+        @Override
+        public Collection<UUID> loadAllUUIDs() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void saveProgressFile(UUID uuid, QuestProgressFile questProgressFile) {
+            saveProgressFiles(Collections.singletonMap(uuid, questProgressFile));
+        }
+
+        @Override
+        public void saveProgressFiles(Map<UUID, QuestProgressFile> questProgressFiles) {
+            synchronized (batches) {
+                batches.add(new LinkedHashMap<>(questProgressFiles));
+            }
+            firstSaveStarted.countDown();
+            try {
+                if (!release.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("save was never released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static final class SilentLogger implements QuestsLogger {
+
+        private LoggingLevel serverLoggingLevel = LoggingLevel.INFO;
+
+        @Override
+        public LoggingLevel getServerLoggingLevel() {
+            return serverLoggingLevel;
+        }
+
+        @Override
+        public void setServerLoggingLevel(LoggingLevel serverLoggingLevel) {
+            this.serverLoggingLevel = serverLoggingLevel;
+        }
+
+        @Override
+        public void log(String str, LoggingLevel level) { }
+
+        @Override
+        public void debug(String str) { }
+
+        @Override
+        public void info(String str) { }
+
+        @Override
+        public void warning(String str) { }
+
+        @Override
+        public void severe(String str) { }
+    }
+}